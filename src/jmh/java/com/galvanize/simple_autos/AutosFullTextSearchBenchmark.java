@@ -0,0 +1,51 @@
+package com.galvanize.simple_autos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the in-memory search index at {@code docs} vehicles, without the database.
+ * SampleTime mode reports p99 alongside the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AutosFullTextSearchBenchmark {
+
+    @Param({"1000000"})
+    int docs;
+
+    AutosSearchIndex index;
+
+    static final String[] QUERIES = {
+            "chevy silverado red", "toyta camry", "honda civc blue", "owner 4242", "mustang",
+            "subaru outback green", "tesla model 3 black", "bench00000012", "root beer dodge viper", "ambr audi"};
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] makes = {"Chevrolet", "Ford", "Dodge", "Audi", "Toyota", "Honda", "Subaru", "Tesla"};
+        String[] models = {"Silverado", "Mustang", "Viper", "Quatro", "Camry", "Civic", "Outback", "Model 3"};
+        String[] colors = {"RED", "BLUE", "GREEN", "ORANGE", "YELLOW", "BLACK", "BROWN", "ROOT BEER", "MAGENTA", "AMBER"};
+        index = new AutosSearchIndex(Map.of("chevy", "chevrolet"));
+        for (int i = 0; i < docs; i++) {
+            Automobile auto = new Automobile(1950 + i % 75, models[i % models.length], makes[i % makes.length],
+                    BenchmarkContext.vin(i));
+            auto.setId(i + 1);
+            auto.setColor(colors[(i / makes.length) % colors.length]);
+            auto.setOwner("Owner " + i % 10_000);
+            index.put(auto);
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)], 20);
+    }
+}
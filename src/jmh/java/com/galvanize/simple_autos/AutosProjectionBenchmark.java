@@ -0,0 +1,71 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code pageSize}-row page as full entities versus a vin/make/model/year projection, each
+ * loaded and serialized to JSON. Run with {@code -prof gc} for heap per page (gc.alloc.rate.norm);
+ * the JSON size of both pages is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AutosProjectionBenchmark {
+
+    static final List<String> FIELDS = List.of("vin", "make", "model", "year");
+
+    @Param({"10000"})
+    int rows;
+
+    @Param({"10000"})
+    int pageSize;
+
+    ConfigurableApplicationContext context;
+    AutosService autosService;
+    AutosRepository autosRepository;
+    TransactionTemplate readOnly;
+    ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        context = BenchmarkContext.start();
+        autosRepository = context.getBean(AutosRepository.class);
+        BenchmarkContext.seed(autosRepository, rows);
+        autosService = context.getBean(AutosService.class);
+        mapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        System.out.printf("%nJSON bytes per %d-row page: entities=%d, projection=%d%n", pageSize,
+                entities().length, projection().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Straight to the repository: AutosService caps entity pages at MAX_PAGE_SIZE.
+    @Benchmark
+    public byte[] entities() throws JsonProcessingException {
+        List<Automobile> page = readOnly.execute(status ->
+                autosRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(pageSize)));
+        return mapper.writeValueAsBytes(new AutosList(page));
+    }
+
+    @Benchmark
+    public byte[] projection() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(autosService.getAutoFields(new AutosFilter(null, null, null), FIELDS, null, pageSize));
+    }
+}
@@ -0,0 +1,48 @@
+package com.galvanize.simple_autos;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtered first-page search per match mode. EXACT and PREFIX can use the lower(color)/lower(make)
+ * indexes on Postgres; CONTAINS is the old %LIKE% scan. All modes use the same filter values so they
+ * return the same rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AutosSearchBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"EXACT", "PREFIX", "CONTAINS"})
+    MatchMode match;
+
+    ConfigurableApplicationContext context;
+    AutosService autosService;
+    AutosFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context.getBean(AutosRepository.class), rows);
+        autosService = context.getBean(AutosService.class);
+        filter = new AutosFilter("magenta", "subaru", match);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AutosList search() {
+        return autosService.getAutos(filter, null, 100);
+    }
+}
@@ -0,0 +1,55 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a single Automobile and of AutosList pages, using the same builder
+ * defaults Spring MVC uses for its message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AutosSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int listSize;
+
+    ObjectMapper mapper;
+    Automobile automobile;
+    AutosList autosList;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Automobile> automobiles = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Automobile auto = new Automobile(1950 + i % 75, "Silverado", "Chevrolet", BenchmarkContext.vin(i));
+            auto.setId(i + 1);
+            auto.setColor("RED");
+            auto.setOwner("Owner " + i);
+            automobiles.add(auto);
+        }
+        automobile = automobiles.get(0);
+        autosList = new AutosList(automobiles, (long) listSize);
+    }
+
+    @Benchmark
+    public byte[] automobile() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(automobile);
+    }
+
+    @Benchmark
+    public byte[] autosList() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(autosList);
+    }
+}
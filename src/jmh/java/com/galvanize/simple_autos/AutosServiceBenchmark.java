@@ -0,0 +1,76 @@
+package com.galvanize.simple_autos;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service and repository hot paths against a seeded H2 table of {@code rows} vehicles
+ * (or Postgres, see {@link BenchmarkContext}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AutosServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    int rows;
+
+    @Param({"100"})
+    int batchSize;
+
+    ConfigurableApplicationContext context;
+    AutosService autosService;
+    AutosRepository autosRepository;
+    AtomicLong nextVin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        autosRepository = context.getBean(AutosRepository.class);
+        BenchmarkContext.seed(autosRepository, rows);
+        autosService = context.getBean(AutosService.class);
+        nextVin = new AtomicLong(autosRepository.count() + 1_000_000_000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AutosList getAutosByColorAndMake() {
+        return autosService.getAutos("MAGENTA", "Subaru");
+    }
+
+    // Straight to the repository, so the VIN cache in front of AutosService.getAuto is not involved.
+    @Benchmark
+    public Object findByVin() {
+        return autosRepository.findByVin(BenchmarkContext.vin(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public Automobile getAutoCached() {
+        return autosService.getAuto(BenchmarkContext.vin(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    // Score is per batch of batchSize inserts, each batch in its own transaction.
+    @Benchmark
+    public List<Automobile> bulkSave() {
+        List<Automobile> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Automobile auto = new Automobile(2024, "Outback", "Subaru", BenchmarkContext.vin(nextVin.getAndIncrement()));
+            auto.setColor("BLUE");
+            batch.add(auto);
+        }
+        return autosService.addAutos(batch);
+    }
+}
@@ -0,0 +1,73 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application for benchmarks, without a web server unless {@link #startWeb} is used.
+ * Runs against an in-memory H2 database unless {@code -Dbench.jdbc.url} (plus {@code bench.jdbc.user}/{@code bench.jdbc.password})
+ * points it at Postgres, which is the only database the search indexes are created on. Flyway creates the schema in either case.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    // Web variant listens on a random port, available as local.server.port.
+    static ConfigurableApplicationContext startWeb(String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(extraProperties));
+        properties.add("server.port=0");
+        // Load generators come from one address; the per-client budgets would cap the measurement.
+        properties.add("autos.rate-limit.enabled=false");
+        return start(WebApplicationType.SERVLET, properties.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=" + url);
+        properties.add("spring.datasource.username=" + System.getProperty("bench.jdbc.user", "sa"));
+        properties.add("spring.datasource.password=" + System.getProperty("bench.jdbc.password", "sa"));
+        if (url.startsWith("jdbc:h2:")) {
+            properties.add("spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        }
+        properties.addAll(List.of(extraProperties));
+        // Passed as command-line arguments so they take precedence over application.properties.
+        return new SpringApplicationBuilder(SimpleAutosApplication.class)
+                .web(webApplicationType)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    static String vin(long index) {
+        return String.format("BENCH%012d", index);
+    }
+
+    // Tops the table up to the requested size so repeated runs against Postgres reuse the data.
+    static void seed(AutosRepository autosRepository, int rows) {
+        String[] makes = {"Chevrolet", "Ford", "Dodge", "Audi", "Toyota", "Honda", "Subaru", "Tesla"};
+        String[] models = {"Silverado", "Mustang", "Viper", "Quatro", "Camry", "Civic", "Outback", "Model 3"};
+        String[] colors = {"RED", "BLUE", "GREEN", "ORANGE", "YELLOW", "BLACK", "BROWN", "ROOT BEER", "MAGENTA", "AMBER"};
+        List<Automobile> batch = new ArrayList<>();
+        for (long i = autosRepository.count(); i < rows; i++) {
+            int n = (int) i;
+            Automobile auto = new Automobile(1950 + n % 75, models[n % models.length], makes[n % makes.length],
+                    vin(i));
+            auto.setColor(colors[(n / makes.length) % colors.length]);
+            auto.setOwner("Owner " + n % 10_000);
+            batch.add(auto);
+            if (batch.size() == 10_000) {
+                autosRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        autosRepository.saveAll(batch);
+    }
+}
@@ -0,0 +1,74 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode time and wire size of an AutosList page per response format. The score is encode time;
+ * the {@code bytes} secondary result is the encoded size of one page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    String format;
+
+    @Param({"1000"})
+    int listSize;
+
+    ObjectMapper mapper;
+    AutosList autosList;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        mapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        List<Automobile> automobiles = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Automobile auto = new Automobile(1950 + i % 75, "Silverado", "Chevrolet", BenchmarkContext.vin(i));
+            auto.setId(i + 1);
+            auto.setColor("RED");
+            auto.setOwner("Owner " + i);
+            automobiles.add(auto);
+        }
+        autosList = new AutosList(automobiles, (long) listSize);
+    }
+
+    @Benchmark
+    public byte[] encode(Wire wire) throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(autosList);
+        if (format.equals("json-gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(encoded.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(encoded);
+            }
+            encoded = compressed.toByteArray();
+        }
+        wire.bytes = encoded.length;
+        return encoded;
+    }
+}
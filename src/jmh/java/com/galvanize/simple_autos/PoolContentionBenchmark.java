@@ -0,0 +1,81 @@
+package com.galvanize.simple_autos;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uncached repository reads from 64 threads against pools of different sizes, with and without
+ * adaptive sizing (which re-evaluates every second here). The {@code poolSize} secondary result is
+ * the pool's maximum size during each iteration; EVENTS counters are summed over threads, so only
+ * one thread reports it. Meaningful numbers need Postgres
+ * ({@code -Dbench.jdbc.url}); in-process H2 hardly holds connections long enough to contend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PoolContentionBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"5", "20"})
+    int poolSize;
+
+    @Param({"false", "true"})
+    boolean adaptive;
+
+    ConfigurableApplicationContext context;
+    AutosRepository autosRepository;
+    HikariDataSource pool;
+
+    final AtomicBoolean reporterClaimed = new AtomicBoolean();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Pool {
+        public int poolSize;
+        boolean reporter;
+
+        @Setup(Level.Trial)
+        public void claim(PoolContentionBenchmark benchmark) {
+            reporter = benchmark.reporterClaimed.compareAndSet(false, true);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = BenchmarkContext.start(
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.minimum-idle=" + poolSize,
+                "autos.pool.adaptive.enabled=" + adaptive,
+                "autos.pool.adaptive.min-size=" + poolSize,
+                "autos.pool.adaptive.interval=1s");
+        autosRepository = context.getBean(AutosRepository.class);
+        BenchmarkContext.seed(autosRepository, rows);
+        pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findByVin(Pool sample) {
+        if (sample.reporter) {
+            sample.poolSize = pool.getHikariConfigMXBean().getMaximumPoolSize();
+        }
+        return autosRepository.findByVin(BenchmarkContext.vin(ThreadLocalRandom.current().nextInt(rows)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.galvanize.simple_autos;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load against a running instance with many concurrent clients, comparing request
+ * execution modes: Spring MVC on platform or virtual threads, and the WebFlux + R2DBC stack of the
+ * reactive profile. Throughput gives req/s and SampleTime gives the p99 latency in the JSON
+ * results. The filtered list query runs on every request, so run it against Postgres
+ * ({@code -Dbench.jdbc.url}, plus {@code -Dbench.r2dbc.url} for reactive) to see the effect of
+ * real database latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(256)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class WebLoadBenchmark {
+
+    @Param({"platform", "virtual", "reactive"})
+    String mode;
+
+    @Param({"100000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (mode.equals("reactive")) {
+            // Same in-memory H2 database as the JDBC side, which seeds it.
+            context = BenchmarkContext.startWeb("spring.profiles.active=reactive", "spring.main.web-application-type=reactive",
+                    "autos.reactive.url=" + System.getProperty("bench.r2dbc.url", "r2dbc:h2:mem:///bench?options=DB_CLOSE_DELAY=-1"),
+                    "autos.reactive.username=" + System.getProperty("bench.jdbc.user", "sa"),
+                    "autos.reactive.password=" + System.getProperty("bench.jdbc.password", "sa"),
+                    "autos.reactive.max-size=" + System.getProperty("bench.r2dbc.pool", "20"));
+        } else {
+            context = BenchmarkContext.startWeb("spring.profiles.active=" + (mode.equals("virtual") ? "virtual" : "default"));
+        }
+        BenchmarkContext.seed(context.getBean(AutosRepository.class), rows);
+        String port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/autos?make=subaru&color=magenta&limit=50"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int filteredList() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
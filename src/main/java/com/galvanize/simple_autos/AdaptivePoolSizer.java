@@ -0,0 +1,77 @@
+package com.galvanize.simple_autos;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes the primary Hikari pool within autos.pool.adaptive.min-size/max-size. The signal is the
+ * mean of hikaricp.connections.acquire since the last run plus threads still waiting at sample
+ * time: the pool grows by step while callers wait longer than grow-above and shrinks by one when
+ * waits are below shrink-below and fewer than half the connections are in use. Hikari retires
+ * the surplus idle connections itself after a shrink.
+ */
+public class AdaptivePoolSizer {
+
+    HikariDataSource pool;
+    MeterRegistry registry;
+    AutosProperties.Pool.Adaptive config;
+
+    private final Counter grown;
+    private final Counter shrunk;
+    private long lastCount;
+    private double lastTotalNanos;
+
+    public AdaptivePoolSizer(HikariDataSource pool, MeterRegistry registry, AutosProperties properties) {
+        this.pool = pool;
+        this.registry = registry;
+        this.config = properties.getPool().getAdaptive();
+        this.grown = Counter.builder("autos.pool.resizes").tag("direction", "grow").register(registry);
+        this.shrunk = Counter.builder("autos.pool.resizes").tag("direction", "shrink").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${autos.pool.adaptive.interval:10s}")
+    public void adjust() {
+        HikariPoolMXBean poolStats = pool.getHikariPoolMXBean();
+        if (poolStats == null) {
+            // Pool not started yet (no connection requested so far).
+            return;
+        }
+        double meanWaitNanos = meanAcquireWaitNanos();
+        HikariConfigMXBean poolConfig = pool.getHikariConfigMXBean();
+        int current = poolConfig.getMaximumPoolSize();
+        int target = current;
+        if (poolStats.getThreadsAwaitingConnection() > 0 || meanWaitNanos > config.getGrowAbove().toNanos()) {
+            target = Math.min(config.getMaxSize(), current + config.getStep());
+        } else if (meanWaitNanos < config.getShrinkBelow().toNanos() && poolStats.getActiveConnections() < current / 2) {
+            target = Math.max(config.getMinSize(), current - 1);
+        }
+        if (target == current) {
+            return;
+        }
+        if (poolConfig.getMinimumIdle() > target) {
+            poolConfig.setMinimumIdle(target);
+        }
+        poolConfig.setMaximumPoolSize(target);
+        (target > current ? grown : shrunk).increment();
+    }
+
+    private double meanAcquireWaitNanos() {
+        Timer acquire = registry.find("hikaricp.connections.acquire").tag("pool", pool.getPoolName()).timer();
+        if (acquire == null) {
+            return 0;
+        }
+        long count = acquire.count();
+        double totalNanos = acquire.totalTime(TimeUnit.NANOSECONDS);
+        double mean = count > lastCount ? (totalNanos - lastTotalNanos) / (count - lastCount) : 0;
+        lastCount = count;
+        lastTotalNanos = totalNanos;
+        return mean;
+    }
+}
@@ -0,0 +1,46 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One committed change as sent on GET /api/autos/events; the id is the SSE event id.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AutoChange {
+    private final String id;
+    private final AutoChangedEvent.Type type;
+    private final String vin;
+    private final Automobile automobile;
+
+    public AutoChange(String id, AutoChangedEvent.Type type, String vin, Automobile automobile) {
+        this.id = id;
+        this.type = type;
+        this.vin = vin;
+        this.automobile = automobile;
+    }
+
+    @JsonIgnore
+    public String getId() {
+        return id;
+    }
+
+    public AutoChangedEvent.Type getType() {
+        return type;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public Automobile getAutomobile() {
+        return automobile;
+    }
+
+    @Override
+    public String toString() {
+        return "AutoChange{" +
+                "id='" + id + '\'' +
+                ", type=" + type +
+                ", vin='" + vin + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,236 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process fan-out of committed changes to SSE subscribers. The last buffer-size changes are
+ * kept in a ring buffer so a client reconnecting with Last-Event-ID gets what it missed; if that
+ * id is no longer buffered (or came from another process) the client gets a "reset" event and
+ * should reload the list. Each subscriber has its own bounded queue drained on the bus's own
+ * bounded sender pool, so a slow client never blocks the publishing transaction, and slow clients
+ * together can only tie up that pool, never the application task executor.
+ */
+@Component
+public class AutoChangeBus {
+
+    public enum Overflow {
+        DISCONNECT,
+        DROP_OLDEST
+    }
+
+    private static final AutoChange RESET = new AutoChange(null, null, null, null);
+
+    TaskExecutor executor;
+    AutosProperties.Events config;
+
+    // Event ids are "<epoch>-<sequence>"; the epoch tells ids from an earlier process apart.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AutoChange[] ring;
+    private long sequence;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter overflows;
+
+    @Autowired
+    public AutoChangeBus(AutosProperties properties, MeterRegistry meterRegistry) {
+        this(senderPool(properties.getEvents()), properties, meterRegistry);
+    }
+
+    AutoChangeBus(TaskExecutor executor, AutosProperties properties, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.config = properties.getEvents();
+        this.ring = new AutoChange[Math.max(1, config.getBufferSize())];
+        Gauge.builder("autos.events.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.overflows = Counter.builder("autos.events.overflows")
+                .tag("policy", config.getOverflow().name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    // SSE writes block while a client is slow to read. Each subscriber has at most one drain task
+    // queued, so sender-queue bounds the subscribers waiting for a thread.
+    private static ThreadPoolTaskExecutor senderPool(AutosProperties.Events config) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("autos-sse-");
+        executor.setCorePoolSize(config.getSenderThreads());
+        executor.setMaxPoolSize(config.getSenderThreads());
+        executor.setQueueCapacity(config.getSenderQueue());
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAutoChanged(AutoChangedEvent event) {
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (this) {
+            sequence++;
+            AutoChange change = new AutoChange(epoch + "-" + sequence, event.getType(), event.getVin(), event.getAutomobile());
+            ring[(int) (sequence % ring.length)] = change;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+                ready.add(subscriber);
+            }
+        }
+        ready.forEach(Subscriber::schedule);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(config.getTimeout().toMillis());
+        subscribe(lastEventId, emitter);
+        return emitter;
+    }
+
+    void subscribe(String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // Replay and registration happen under the publish lock, so nothing is missed or sent twice.
+        synchronized (this) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<AutoChange> missed = since(lastEventId.trim());
+                if (missed == null) {
+                    subscriber.queue.add(RESET);
+                } else {
+                    subscriber.queue.addAll(missed);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+    }
+
+    // Buffered changes after lastEventId, or null if the gap can't be filled from the buffer.
+    private List<AutoChange> since(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (last > sequence || last < sequence - ring.length) {
+            return null;
+        }
+        List<AutoChange> missed = new ArrayList<>((int) (sequence - last));
+        for (long seq = last + 1; seq <= sequence; seq++) {
+            missed.add(ring[(int) (seq % ring.length)]);
+        }
+        return missed;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private class Subscriber {
+        final SseEmitter emitter;
+        final ArrayDeque<AutoChange> queue = new ArrayDeque<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(AutoChange change) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= config.getSubscriberQueue()) {
+                overflows.increment();
+                if (config.getOverflow() == Overflow.DISCONNECT) {
+                    // The client reconnects with its Last-Event-ID and catches up from the ring buffer.
+                    closed = true;
+                    queue.clear();
+                    return;
+                }
+                queue.poll();
+            }
+            queue.add(change);
+        }
+
+        synchronized AutoChange poll() {
+            return queue.poll();
+        }
+
+        synchronized boolean hasPending() {
+            return closed || !queue.isEmpty();
+        }
+
+        // With the sender pool saturated the subscriber is disconnected; it resumes from the buffer.
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (TaskRejectedException e) {
+                    overflows.increment();
+                    closed = true;
+                    subscribers.remove(this);
+                    draining.set(false);
+                    emitter.complete();
+                }
+            }
+        }
+
+        void drain() {
+            try {
+                AutoChange change;
+                while (!closed && (change = poll()) != null) {
+                    send(change);
+                }
+                if (closed) {
+                    subscribers.remove(this);
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container completes the emitter.
+                closed = true;
+                subscribers.remove(this);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && hasPending()) {
+                schedule();
+            }
+        }
+
+        private void send(AutoChange change) throws IOException {
+            if (change == RESET) {
+                emitter.send(SseEmitter.event().name("reset").data("Last-Event-ID is no longer buffered"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(change.getId())
+                        .name(change.getType().name().toLowerCase())
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+}
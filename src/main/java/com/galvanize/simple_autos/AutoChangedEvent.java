@@ -0,0 +1,56 @@
+package com.galvanize.simple_autos;
+
+/**
+ * Published by AutosService for every insert, update and delete. Listeners use
+ * {@code @TransactionalEventListener} so they only see committed changes. Deletes carry no
+ * automobile because they run as a single DELETE without loading the row. CREATED events from a
+ * bulk insert are batched: an AutosAddedEvent for the whole batch precedes them.
+ */
+public class AutoChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final String vin;
+    private final Automobile automobile;
+    private final boolean batched;
+
+    public AutoChangedEvent(Type type, String vin, Automobile automobile) {
+        this(type, vin, automobile, false);
+    }
+
+    public AutoChangedEvent(Type type, String vin, Automobile automobile, boolean batched) {
+        this.type = type;
+        this.vin = vin;
+        this.automobile = automobile;
+        this.batched = batched;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public Automobile getAutomobile() {
+        return automobile;
+    }
+
+    public boolean isBatched() {
+        return batched;
+    }
+
+    @Override
+    public String toString() {
+        return "AutoChangedEvent{" +
+                "type=" + type +
+                ", vin='" + vin + '\'' +
+                '}';
+    }
+}
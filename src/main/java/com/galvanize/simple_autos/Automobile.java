@@ -1,18 +1,25 @@
 package com.galvanize.simple_autos;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import java.util.Date;
+import java.time.Instant;
+import java.time.LocalDate;
 
 
 @SuppressWarnings("TextBlockMigration")
 @Entity
-@Table(name =  "automobiles")
+@Table(name =  "automobiles", uniqueConstraints = @UniqueConstraint(name = "uk_automobiles_vin", columnNames = "vin"))
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Automobile {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts (see hibernate.jdbc.batch_size).
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "automobiles_seq")
+    @SequenceGenerator(name = "automobiles_seq", sequenceName = "automobiles_seq", allocationSize = 50)
     private long id;
     @Column(name =  "model_year")
     private int year;
@@ -21,9 +28,20 @@ public class Automobile {
     private String color;
     @Column(name = "owner_name")
     private String owner;
-    @JsonFormat(pattern = "MM/DD/YYYY")
-    private Date purchaseDate;
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    private LocalDate purchaseDate;
+    @Column(nullable = false)
     private String vin;
+    // Sent as the ETag / checked against If-Match rather than serialized in the body.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private long version;
+    // Sent as Last-Modified; bulk updates in AutosRepository set it explicitly.
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant lastModified;
 
     public Automobile() {
     }
@@ -75,6 +93,14 @@ public class Automobile {
         this.owner = owner;
     }
 
+    public LocalDate getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public void setPurchaseDate(LocalDate purchaseDate) {
+        this.purchaseDate = purchaseDate;
+    }
+
     public String getVin() {
         return vin;
     }
@@ -83,6 +109,22 @@ public class Automobile {
         this.vin = vin;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
     public long getId() {
         return id;
     }
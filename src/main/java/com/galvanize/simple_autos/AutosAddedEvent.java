@@ -0,0 +1,27 @@
+package com.galvanize.simple_autos;
+
+import java.util.List;
+
+/**
+ * Published by AutosService.addAutos once per batch, before the batch's CREATED events (which are
+ * marked batched). Caches that would otherwise invalidate once per row invalidate once here.
+ */
+public class AutosAddedEvent {
+
+    private final List<Automobile> automobiles;
+
+    public AutosAddedEvent(List<Automobile> automobiles) {
+        this.automobiles = automobiles;
+    }
+
+    public List<Automobile> getAutomobiles() {
+        return automobiles;
+    }
+
+    @Override
+    public String toString() {
+        return "AutosAddedEvent{" +
+                "automobiles=" + automobiles.size() +
+                '}';
+    }
+}
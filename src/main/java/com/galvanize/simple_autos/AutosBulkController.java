@@ -0,0 +1,33 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@Profile("!reactive")
+public class AutosBulkController {
+
+    AutosBulkLoader bulkLoader;
+    ObjectReader autoReader;
+
+    public AutosBulkController(AutosBulkLoader bulkLoader, ObjectMapper mapper) {
+        this.bulkLoader = bulkLoader;
+        this.autoReader = mapper.readerFor(Automobile.class);
+    }
+
+    // Accepts a JSON array or NDJSON; either way the body is parsed one vehicle at a time.
+    @PostMapping(value = "/api/autos/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkIngestResult addAutos(InputStream body) throws IOException {
+        try (MappingIterator<Automobile> autos = autoReader.readValues(body)) {
+            return bulkLoader.ingest(autos);
+        }
+    }
+}
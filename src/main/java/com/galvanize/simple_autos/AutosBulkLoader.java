@@ -0,0 +1,79 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class AutosBulkLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(AutosBulkLoader.class);
+
+    AutosService autosService;
+    AutosProperties properties;
+
+    public AutosBulkLoader(AutosService autosService, AutosProperties properties) {
+        this.autosService = autosService;
+        this.properties = properties;
+    }
+
+    // Each batch commits in its own transaction, so a bad batch (e.g. a duplicate VIN) doesn't roll
+    // back the batches before it. A failed batch is retried row by row and the rejected rows are
+    // reported by their position in the input.
+    public BulkIngestResult ingest(MappingIterator<Automobile> autos) {
+        int batchSize = Math.max(1, properties.getBulk().getBatchSize());
+        BulkIngestResult result = new BulkIngestResult();
+        List<Automobile> batch = new ArrayList<>(batchSize);
+        try {
+            while (autos.hasNextValue()) {
+                batch.add(autos.nextValue());
+                if (batch.size() == batchSize) {
+                    save(batch, result);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException | RuntimeJsonMappingException e) {
+            result.setError(e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            save(batch, result);
+        }
+        return result;
+    }
+
+    private void save(List<Automobile> batch, BulkIngestResult result) {
+        int index = result.getBatches().size();
+        long offset = result.getInserted() + result.getFailed();
+        try {
+            autosService.addAutos(batch);
+            result.add(new BatchResult(index, batch.size(), true, null));
+            return;
+        } catch (DataAccessException e) {
+            log.warn("Bulk batch {} of {} rows failed, retrying row by row", index, batch.size(), e);
+        }
+        BatchResult failed = new BatchResult(index, batch.size(), false, null);
+        for (int i = 0; i < batch.size(); i++) {
+            Automobile auto = batch.get(i);
+            // The rolled-back insert may have assigned an id; clear it so the row is persisted, not merged.
+            auto.setId(0);
+            auto.setVersion(0);
+            try {
+                autosService.addAutos(List.of(auto));
+            } catch (DataAccessException e) {
+                log.warn("Bulk row {} (vin {}) rejected", offset + i, auto.getVin(), e);
+                failed.addFailedRow(offset + i);
+                failed.setError(e instanceof DataIntegrityViolationException ? BatchResult.CONSTRAINT_VIOLATION : BatchResult.DATABASE_ERROR);
+            }
+        }
+        failed.setInserted(failed.getFailedRows().isEmpty());
+        result.add(failed);
+    }
+}
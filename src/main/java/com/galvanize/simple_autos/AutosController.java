@@ -1,52 +1,211 @@
 package com.galvanize.simple_autos;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
+@Profile("!reactive")
 public class AutosController {
 
     AutosService autosService;
+    AutosProperties properties;
+    OwnerTransferQueue ownerTransfers;
+    IdempotencyKeys idempotencyKeys;
+    ReadCoalescer reads;
+    ObjectWriter autoWriter;
 
-    public AutosController(AutosService autosService) {
+    public AutosController(AutosService autosService, AutosProperties properties, OwnerTransferQueue ownerTransfers,
+                           IdempotencyKeys idempotencyKeys, ReadCoalescer reads, ObjectMapper mapper) {
         this.autosService = autosService;
+        this.reads = reads;
+        this.properties = properties;
+        this.ownerTransfers = ownerTransfers;
+        this.idempotencyKeys = idempotencyKeys;
+        this.autoWriter = mapper.writerFor(Automobile.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    // purchasedFrom/purchasedTo are inclusive ISO dates (yyyy-MM-dd), e.g. ?purchasedFrom=2020-01-01&purchasedTo=2020-12-31
     @GetMapping("/api/autos")
-    public ResponseEntity<AutosList> getAutos(@RequestParam(required = false) String color, @RequestParam(required = false) String make) {
+    public ResponseEntity<AutosList> getAutos(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                                              @RequestParam(defaultValue = "PREFIX") MatchMode match,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo,
+                                              @RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int limit) {
 
+        AutosFilter filter = new AutosFilter(color, make, match, purchasedFrom, purchasedTo);
         AutosList autosList;
-        if (color == null && make == null) {
-            autosList = autosService.getAutos();
+        if (filter.isEmpty()) {
+            autosList = reads.getAutos(after, limit);
         } else {
-            autosList = autosService.getAutos(color, make);
+            autosList = reads.getAutos(filter, after, limit);
+        }
+        if (autosList.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        // No Last-Modified here: a delete can change the list without moving any timestamp forward.
+        return ResponseEntity.ok()
+                .eTag(etag(autosList))
+                .header(HttpHeaders.CACHE_CONTROL, properties.getHttp().getListCacheControl())
+                .body(autosList);
+    }
+
+    // Sparse fieldset, e.g. ?fields=vin,make,model,year: only those columns are selected. Pages go up
+    // to 10,000 rows here (1,000 for full rows).
+    @GetMapping(value = "/api/autos", params = "fields")
+    public ResponseEntity<AutosProjection> getAutoFields(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                                                         @RequestParam(defaultValue = "PREFIX") MatchMode match,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo,
+                                                         @RequestParam List<String> fields,
+                                                         @RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int limit) {
+        AutosProjection projection = autosService.getAutoFields(new AutosFilter(color, make, match, purchasedFrom, purchasedTo), fields, after, limit);
+        if (projection.isEmpty()) {
+            return ResponseEntity.noContent().build();
         }
-        return autosList.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(autosList);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, properties.getHttp().getListCacheControl())
+                .body(projection);
     }
 
+    // Opt-in NDJSON stream of the (filtered) table, written row by row from a database cursor.
+    @GetMapping(value = "/api/autos", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAutos(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                                                             @RequestParam(defaultValue = "PREFIX") MatchMode match,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo) {
+        AutosFilter filter = new AutosFilter(color, make, match, purchasedFrom, purchasedTo);
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter rows = autoWriter.writeValues(out)) {
+                autosService.streamAutos(filter, auto -> {
+                    try {
+                        rows.write(auto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Creates are idempotent per VIN; a different car under a stored VIN is a 409. A retry carrying a
+    // known Idempotency-Key is answered from the VIN lookup without attempting the insert, under the
+    // same 409 rule; reusing a key for a different VIN is a 422.
     @PostMapping("/api/autos")
-    public Automobile addAutos(@RequestBody Automobile auto) {
-        return autosService.addAuto(auto);
+    public Automobile addAutos(@RequestBody Automobile auto,
+                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (auto.getVin() == null || auto.getVin().isBlank()) {
+            throw new InvalidAutoException();
+        }
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return autosService.addAuto(auto);
+        }
+        String claimedVin = idempotencyKeys.claim(idempotencyKey, auto.getVin());
+        if (claimedVin == null) {
+            return autosService.addAuto(auto);
+        }
+        if (!claimedVin.equals(auto.getVin())) {
+            throw new IdempotencyKeyReusedException();
+        }
+        Automobile existing = autosService.getAuto(claimedVin);
+        if (existing == null) {
+            return autosService.addAuto(auto);
+        }
+        if (!AutosService.sameDetails(existing, auto)) {
+            throw new AutoAlreadyExistsException();
+        }
+        return existing;
     }
 
     @GetMapping("/api/autos/{vin}")
     public ResponseEntity<Automobile> getAuto(@PathVariable String vin) {
-        Automobile auto = autosService.getAuto(vin);
+        Automobile auto = reads.getAuto(vin);
 //        return auto == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(auto);
-        return ResponseEntity.ok(auto);
+        if (auto == null) {
+            return ResponseEntity.ok().build();
+        }
+        // ResponseEntity with an ETag answers If-None-Match/If-Modified-Since with a 304
+        // before the body is serialized; with a warm VIN cache no query runs either.
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag(auto))
+                .header(HttpHeaders.CACHE_CONTROL, properties.getHttp().getItemCacheControl());
+        if (auto.getLastModified() != null) {
+            response.lastModified(auto.getLastModified());
+        }
+        return response.body(auto);
     }
+
     @PatchMapping("/api/autos/{vin}")
-    public Automobile updateAuto(@PathVariable String vin, @RequestBody UpdateOwnerRequest update) {
-        return autosService.updateAuto(vin, update.getColor(), update.getOwner());
+    public ResponseEntity<Automobile> updateAuto(@PathVariable String vin, @RequestBody UpdateOwnerRequest update,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // Write-behind only for unconditional updates; an If-Match needs the current version.
+        VersionTag expectedVersion = expectedVersion(ifMatch);
+        if (expectedVersion == null && ownerTransfers.isEnabled()) {
+            ownerTransfers.offer(vin, update.getColor(), update.getOwner());
+            return ResponseEntity.accepted().build();
+        }
+        // A change queued earlier must not be applied after this one.
+        ownerTransfers.applyPending(vin);
+        Automobile auto = autosService.updateAuto(vin, update.getColor(), update.getOwner(), expectedVersion);
+        return ResponseEntity.ok().eTag(etag(auto)).body(auto);
     }
 
     @DeleteMapping("/api/autos/{vin}")
-    public ResponseEntity deleteAuto(@PathVariable String vin) {
-        autosService.deleteAuto(vin);
+    public ResponseEntity deleteAuto(@PathVariable String vin,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VersionTag expectedVersion = expectedVersion(ifMatch);
+        ownerTransfers.applyPending(vin);
+        autosService.deleteAuto(vin, expectedVersion);
         return ResponseEntity.accepted().build();
     }
 
+    static String etag(Automobile auto) {
+        return "\"" + VersionTag.of(auto) + "\"";
+    }
+
+    // Strong list ETag from the ids and versions on the page, so no body is needed to compute it.
+    static String etag(AutosList autosList) {
+        long hash = autosList.getNext() == null ? 0 : autosList.getNext();
+        for (Automobile auto : autosList.getAutomobiles()) {
+            hash = 31 * hash + auto.getId();
+            hash = 31 * hash + auto.getVersion();
+        }
+        return "\"" + Long.toHexString(hash) + "-" + autosList.getAutomobiles().size() + "\"";
+    }
+
+    // If-Match carries the ETag from a previous GET/PATCH; "*" or no header means unconditional.
+    static VersionTag expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        VersionTag expected = VersionTag.parse(tag.replace("\"", ""));
+        if (expected == null) {
+            throw new AutoVersionConflictException();
+        }
+        return expected;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void noContent(AutoNotFoundException e) {}
@@ -56,4 +215,21 @@ public class AutosController {
     public void invalidAutoExceptionHandler(InvalidAutoException e){
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public void versionConflict(AutoVersionConflictException e) {}
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void alreadyExists(AutoAlreadyExistsException e) {}
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public void idempotencyKeyReused(IdempotencyKeyReusedException e) {}
+
+    @ExceptionHandler
+    public ResponseEntity<Void> writeBehindFull(WriteBehindFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
 }
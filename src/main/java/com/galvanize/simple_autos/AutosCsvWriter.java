@@ -0,0 +1,63 @@
+package com.galvanize.simple_autos;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+// RFC 4180 CSV: CRLF line endings, fields quoted only when they contain a comma, quote or line break.
+public class AutosCsvWriter {
+
+    static final String HEADER = "id,vin,year,make,model,color,owner,purchase_date";
+    // First field of the row written when an export fails part-way; the second field is the row count.
+    static final String ABORTED = "#aborted";
+
+    private final Writer out;
+    private long rows;
+
+    public AutosCsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeHeader() throws IOException {
+        out.write(HEADER);
+        out.write("\r\n");
+    }
+
+    public void write(Automobile auto) throws IOException {
+        out.write(Long.toString(auto.getId()));
+        out.write(',');
+        out.write(escape(auto.getVin()));
+        out.write(',');
+        out.write(Integer.toString(auto.getYear()));
+        out.write(',');
+        out.write(escape(auto.getMake()));
+        out.write(',');
+        out.write(escape(auto.getModel()));
+        out.write(',');
+        out.write(escape(auto.getColor()));
+        out.write(',');
+        out.write(escape(auto.getOwner()));
+        out.write(',');
+        LocalDate purchaseDate = auto.getPurchaseDate();
+        out.write(purchaseDate == null ? "" : purchaseDate.toString());
+        out.write("\r\n");
+        rows++;
+    }
+
+    public void writeAborted() throws IOException {
+        out.write(ABORTED);
+        out.write(',');
+        out.write(Long.toString(rows));
+        out.write("\r\n");
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
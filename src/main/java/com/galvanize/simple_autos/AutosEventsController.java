@@ -0,0 +1,25 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@Profile("!reactive")
+public class AutosEventsController {
+
+    AutoChangeBus changeBus;
+
+    public AutosEventsController(AutoChangeBus changeBus) {
+        this.changeBus = changeBus;
+    }
+
+    // Server-Sent Events: created, updated and deleted autos as they commit.
+    @GetMapping(value = "/api/autos/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeBus.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@Profile("!reactive")
+public class AutosExportController {
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    AutosService autosService;
+
+    public AutosExportController(AutosService autosService) {
+        this.autosService = autosService;
+    }
+
+    // Whole-fleet export for analytics, filtered like GET /api/autos. Rows go from a fetch-size-bounded
+    // cursor straight onto the response, so memory stays flat however many rows there are. An export
+    // that fails part-way ends with an "#aborted,<rows>" row and a dropped connection.
+    @GetMapping("/api/autos/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                                                        @RequestParam(defaultValue = "PREFIX") MatchMode match,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        if (!"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        AutosFilter filter = new AutosFilter(color, make, match, purchasedFrom, purchasedTo);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            AutosCsvWriter csv = new AutosCsvWriter(writer);
+            csv.writeHeader();
+            try {
+                autosService.streamAutos(filter, auto -> {
+                    try {
+                        csv.write(auto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // The 200 is long gone, so mark the file as incomplete, then rethrow so the
+                // container aborts the connection instead of ending the body cleanly.
+                try {
+                    csv.writeAborted();
+                    writer.flush();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("autos.csv").build().toString())
+                .body(body);
+    }
+}
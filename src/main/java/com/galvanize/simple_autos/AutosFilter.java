@@ -0,0 +1,106 @@
+package com.galvanize.simple_autos;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+
+public class AutosFilter {
+    private final String color;
+    private final String make;
+    private final MatchMode match;
+    private final LocalDate purchasedFrom;
+    private final LocalDate purchasedTo;
+
+    public AutosFilter(String color, String make, MatchMode match) {
+        this(color, make, match, null, null);
+    }
+
+    // purchasedFrom and purchasedTo are both inclusive; either may be open (null).
+    public AutosFilter(String color, String make, MatchMode match, LocalDate purchasedFrom, LocalDate purchasedTo) {
+        this.color = normalize(color);
+        this.make = normalize(make);
+        this.match = match == null ? MatchMode.PREFIX : match;
+        this.purchasedFrom = purchasedFrom;
+        this.purchasedTo = purchasedTo;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public MatchMode getMatch() {
+        return match;
+    }
+
+    public LocalDate getPurchasedFrom() {
+        return purchasedFrom;
+    }
+
+    public LocalDate getPurchasedTo() {
+        return purchasedTo;
+    }
+
+    public boolean isEmpty() {
+        return color == null && make == null && purchasedFrom == null && purchasedTo == null;
+    }
+
+    // In-memory equivalent of the SQL predicates (AutosRepositoryCustomImpl.filterPredicates).
+    public boolean matches(Automobile auto) {
+        if (color != null && !matches(auto.getColor(), color)) {
+            return false;
+        }
+        if (make != null && !matches(auto.getMake(), make)) {
+            return false;
+        }
+        LocalDate purchaseDate = auto.getPurchaseDate();
+        if (purchasedFrom != null && (purchaseDate == null || purchaseDate.isBefore(purchasedFrom))) {
+            return false;
+        }
+        return purchasedTo == null || (purchaseDate != null && !purchaseDate.isAfter(purchasedTo));
+    }
+
+    private boolean matches(String column, String value) {
+        if (column == null) {
+            return false;
+        }
+        String lowered = column.toLowerCase(Locale.ROOT);
+        return switch (match) {
+            case EXACT -> lowered.equals(value);
+            case PREFIX -> lowered.startsWith(value);
+            case CONTAINS -> lowered.contains(value);
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AutosFilter that = (AutosFilter) o;
+        return Objects.equals(color, that.color) && Objects.equals(make, that.make) && match == that.match
+                && Objects.equals(purchasedFrom, that.purchasedFrom) && Objects.equals(purchasedTo, that.purchasedTo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(color, make, match, purchasedFrom, purchasedTo);
+    }
+
+    @Override
+    public String toString() {
+        return "AutosFilter{" +
+                "color='" + color + '\'' +
+                ", make='" + make + '\'' +
+                ", match=" + match +
+                ", purchasedFrom=" + purchasedFrom +
+                ", purchasedTo=" + purchasedTo +
+                '}';
+    }
+}
@@ -1,15 +1,25 @@
 package com.galvanize.simple_autos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AutosList {
     private List<Automobile> automobiles;
+    private Long next;
+
     public AutosList(List<Automobile> automobiles) {
         this.automobiles = automobiles;
     }
 
+    public AutosList(List<Automobile> automobiles, Long next) {
+        this.automobiles = automobiles;
+        this.next = next;
+    }
+
     public AutosList() {
         this.automobiles = new ArrayList<>();
     }
@@ -22,6 +32,14 @@ public class AutosList {
         this.automobiles = automobiles;
     }
 
+    public Long getNext() {
+        return next;
+    }
+
+    public void setNext(Long next) {
+        this.next = next;
+    }
+
     public boolean isEmpty() {
         return this.automobiles.isEmpty();
     }
@@ -30,6 +48,7 @@ public class AutosList {
     public String toString() {
         return "AutosList{" +
                 "automobiles=" + automobiles +
+                ", next=" + next +
                 '}';
     }
 
@@ -38,11 +57,11 @@ public class AutosList {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AutosList autosList = (AutosList) o;
-        return Objects.equals(automobiles, autosList.automobiles);
+        return Objects.equals(automobiles, autosList.automobiles) && Objects.equals(next, autosList.next);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(automobiles);
+        return Objects.hash(automobiles, next);
     }
 }
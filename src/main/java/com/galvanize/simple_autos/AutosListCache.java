@@ -0,0 +1,328 @@
+package com.galvanize.simple_autos;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for filtered list pages, keyed by the normalized AutosFilter plus cursor and page
+ * size. ReadCoalescer consults it outside the service transaction, so a hit never takes a connection.
+ *
+ * L1 is a size-bounded Caffeine cache with targeted invalidation: a created or updated car evicts
+ * only the pages that contained it (found through a VIN index) or whose filter now matches it (one
+ * filter test per page); deletes clear everything.
+ *
+ * L2 (autos.list-cache.l2-cache-name) is an optional Spring cache shared between instances. Its keys
+ * embed generation stamps stored in the same cache, so invalidation is a stamp change rather than a
+ * scan: make never changes after create, so a write to make X re-stamps the exact tag for X and one
+ * tag per prefix of X (matching EXACT and PREFIX filters); filters without a make or using CONTAINS
+ * share one tag that every write re-stamps, and deletes re-stamp the epoch. Each L1 page remembers
+ * the L2 key it was stored under, and a hit whose stamps have moved on (a write on another
+ * instance) is dropped and reloaded. A bulk insert (AutosAddedEvent) clears L1 and re-stamps the
+ * epoch once instead of once per row.
+ *
+ * With a read replica, a load right after a write may still see the old rows, so pages loaded
+ * within autos.replica.read-your-writes-window of this instance's last invalidation, or of the
+ * newest L2 stamp they depend on (stamps are wall-clock millis), are returned but not stored.
+ *
+ * Metrics: cache.gets/cache.evictions/cache.size{cache=autosLists} for L1, autos.list.cache.l2 and
+ * autos.list.cache.invalidations{scope}.
+ *
+ * Cached pages and the Automobile instances in them are handed to every caller as-is, so they are
+ * read-only: nothing on the read path may modify a returned page or its rows.
+ */
+@Component
+public class AutosListCache implements MeterBinder {
+
+    static final String CACHE_NAME = "autosLists";
+    private static final String EPOCH = "gen:epoch";
+    private static final String ANY_MAKE = "gen:make*";
+
+    private final com.github.benmanes.caffeine.cache.Cache<Key, Entry> l1;
+    // VIN -> the L1 entries whose page lists it; entries leave through the removal listener.
+    private final Map<String, Set<Entry>> byVin = new ConcurrentHashMap<>();
+    private final Cache l2;
+    // Bumped by every invalidation; a load that raced with one is not stored.
+    private final AtomicLong writes = new AtomicLong();
+    // Zero without a replica: the primary never returns rows older than the last commit.
+    private final long settleNanos;
+    private volatile long lastInvalidation;
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+    private final LongAdder targeted = new LongAdder();
+    private final LongAdder cleared = new LongAdder();
+
+    public AutosListCache(AutosProperties properties, ObjectProvider<CacheManager> cacheManagers, Environment environment) {
+        AutosProperties.ListCache config = properties.getListCache();
+        this.settleNanos = environment.containsProperty("autos.datasource.replica.jdbc-url")
+                ? properties.getReplica().getReadYourWritesWindow().toNanos() : 0;
+        this.lastInvalidation = System.nanoTime() - settleNanos;
+        this.l1 = config.isEnabled() ? Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .<Key, Entry>removalListener((key, entry, cause) -> unindex(entry))
+                .build() : null;
+        this.l2 = config.isEnabled() && config.getL2CacheName() != null ? l2Cache(cacheManagers, config.getL2CacheName()) : null;
+    }
+
+    private static Cache l2Cache(ObjectProvider<CacheManager> cacheManagers, String name) {
+        CacheManager cacheManager = cacheManagers.getIfAvailable();
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("autos.list-cache.l2-cache-name: no cache named " + name);
+        }
+        return cache;
+    }
+
+    public AutosList get(AutosFilter filter, Long after, int limit, Supplier<AutosList> load) {
+        if (l1 == null) {
+            return load.get();
+        }
+        Key key = new Key(filter, after == null ? 0 : after, limit);
+        long writesBefore = writes.get();
+        L2Key l2Key = l2 == null ? null : l2Key(key);
+        Entry cached = l1.getIfPresent(key);
+        if (cached != null) {
+            if (l2Key == null || l2Key.key.equals(cached.l2Key)) {
+                return cached.page;
+            }
+            l1.asMap().remove(key, cached);
+        }
+        if (l2Key != null) {
+            AutosList shared = l2.get(l2Key.key, AutosList.class);
+            if (shared != null) {
+                l2Hits.increment();
+                putIfUnchanged(key, shared, l2Key, writesBefore);
+                return shared;
+            }
+            l2Misses.increment();
+        }
+        AutosList loaded = load.get();
+        if (loaded != null && (l2Key == null || !l2Key.settling(settleNanos))
+                && putIfUnchanged(key, loaded, l2Key, writesBefore) && l2Key != null) {
+            l2.put(l2Key.key, loaded);
+        }
+        return loaded;
+    }
+
+    // Invalidations bump writes before they look at L1, so an entry put after that bump is caught by
+    // the re-check and one put before it (indexed first) is found by the invalidation.
+    private boolean putIfUnchanged(Key key, AutosList page, L2Key l2Key, long writesBefore) {
+        if (writes.get() != writesBefore || System.nanoTime() - lastInvalidation < settleNanos) {
+            return false;
+        }
+        Entry entry = new Entry(key, page, l2Key == null ? null : l2Key.key);
+        for (Automobile auto : page.getAutomobiles()) {
+            if (auto.getVin() != null) {
+                byVin.computeIfAbsent(auto.getVin(), vin -> ConcurrentHashMap.newKeySet()).add(entry);
+            }
+        }
+        l1.put(key, entry);
+        if (writes.get() != writesBefore) {
+            l1.asMap().remove(key, entry);
+            return false;
+        }
+        return true;
+    }
+
+    private void unindex(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        for (Automobile auto : entry.page.getAutomobiles()) {
+            if (auto.getVin() != null) {
+                byVin.computeIfPresent(auto.getVin(), (vin, entries) -> {
+                    entries.remove(entry);
+                    return entries.isEmpty() ? null : entries;
+                });
+            }
+        }
+    }
+
+    private void evict(Entry entry) {
+        if (l1.asMap().remove(entry.key, entry)) {
+            targeted.increment();
+        }
+    }
+
+    // Called by ReadCoalescer for each committed change, before it drops its own short-lived entries.
+    public void onAutoChanged(AutoChangedEvent event) {
+        if (l1 == null) {
+            return;
+        }
+        Automobile auto = event.getAutomobile();
+        if (event.getType() == AutoChangedEvent.Type.DELETED || auto == null) {
+            clear();
+            return;
+        }
+        invalidated();
+        Set<Entry> listing = byVin.get(event.getVin());
+        if (listing != null) {
+            listing.forEach(this::evict);
+        }
+        for (Entry entry : l1.asMap().values()) {
+            if (entry.key.couldInclude(auto)) {
+                evict(entry);
+            }
+        }
+        if (l2 != null) {
+            restamp(ANY_MAKE);
+            if (auto.getMake() != null) {
+                String make = auto.getMake().trim().toLowerCase(Locale.ROOT);
+                restamp("gen:make=" + make);
+                for (int i = 1; i <= make.length(); i++) {
+                    restamp("gen:make^" + make.substring(0, i));
+                }
+            }
+        }
+    }
+
+    // Called by ReadCoalescer once per bulk insert; the batch's own CREATED events skip this cache.
+    public void onAutosAdded(AutosAddedEvent event) {
+        if (l1 != null) {
+            clear();
+        }
+    }
+
+    // For changes made around AutosService (e.g. direct SQL), which publish no AutoChangedEvent.
+    public void invalidateAll() {
+        onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, null, null));
+    }
+
+    private void clear() {
+        invalidated();
+        cleared.add(l1.estimatedSize());
+        l1.invalidateAll();
+        restamp(EPOCH);
+    }
+
+    private void invalidated() {
+        writes.incrementAndGet();
+        lastInvalidation = System.nanoTime();
+    }
+
+    private L2Key l2Key(Key key) {
+        AutosFilter filter = key.filter;
+        String tag;
+        if (filter.getMake() == null || filter.getMatch() == MatchMode.CONTAINS) {
+            tag = ANY_MAKE;
+        } else if (filter.getMatch() == MatchMode.EXACT) {
+            tag = "gen:make=" + filter.getMake();
+        } else {
+            tag = "gen:make^" + filter.getMake();
+        }
+        long epoch = stamp(EPOCH);
+        long make = stamp(tag);
+        return new L2Key("list:" + filter + ":" + key.after + ":" + key.limit + "@" + epoch + "/" + make, Math.max(epoch, make));
+    }
+
+    private long stamp(String tag) {
+        Long stamp = l2.get(tag, Long.class);
+        return stamp == null ? 0 : stamp;
+    }
+
+    // Strictly increasing per tag, so two writes in the same millisecond still change the key.
+    private void restamp(String tag) {
+        if (l2 != null) {
+            l2.put(tag, Math.max(System.currentTimeMillis(), stamp(tag) + 1));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (l1 == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(registry, l1, CACHE_NAME);
+        FunctionCounter.builder("autos.list.cache.l2", l2Hits, LongAdder::sum)
+                .description("Filtered list pages answered by the shared L2 cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("autos.list.cache.l2", l2Misses, LongAdder::sum)
+                .description("Filtered list pages not found in the shared L2 cache")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("autos.list.cache.invalidations", targeted, LongAdder::sum)
+                .description("L1 pages evicted because a write touched their filter or contents")
+                .tag("scope", "targeted")
+                .register(registry);
+        FunctionCounter.builder("autos.list.cache.invalidations", cleared, LongAdder::sum)
+                .description("L1 pages dropped by a full clear (deletes, bulk inserts)")
+                .tag("scope", "all")
+                .register(registry);
+    }
+
+    private static class Entry {
+        final Key key;
+        final AutosList page;
+        // Null without L2.
+        final String l2Key;
+
+        Entry(Key key, AutosList page, String l2Key) {
+            this.key = key;
+            this.page = page;
+            this.l2Key = l2Key;
+        }
+    }
+
+    private static class L2Key {
+        final String key;
+        final long stampedAt;
+
+        L2Key(String key, long stampedAt) {
+            this.key = key;
+            this.stampedAt = stampedAt;
+        }
+
+        boolean settling(long settleNanos) {
+            return settleNanos > 0 && (System.currentTimeMillis() - stampedAt) * 1_000_000 < settleNanos;
+        }
+    }
+
+    private static class Key {
+        final AutosFilter filter;
+        final long after;
+        final int limit;
+
+        Key(AutosFilter filter, long after, int limit) {
+            this.filter = filter;
+            this.after = after;
+            this.limit = limit;
+        }
+
+        // A page is ids above the cursor, so a car at or below it cannot enter the page.
+        boolean couldInclude(Automobile auto) {
+            return auto.getId() > after && filter.matches(auto);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return after == that.after && limit == that.limit && filter.equals(that.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, after, limit);
+        }
+    }
+}
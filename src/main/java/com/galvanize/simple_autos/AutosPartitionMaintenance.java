@@ -0,0 +1,53 @@
+package com.galvanize.simple_autos;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the yearly partitions of automobiles (profile "partitioned", see db/partitioning) one year
+ * ahead, so dated rows don't pile up in the default partition. create_automobiles_partition is a
+ * no-op for a year that already exists and serializes callers, so every instance can run this. A
+ * failure is logged and retried on the next run rather than failing startup.
+ */
+@Component
+@Profile("partitioned")
+@EnableScheduling
+public class AutosPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(AutosPartitionMaintenance.class);
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    public AutosPartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${autos.partitioning.cron}")
+    public void createUpcomingPartitions() {
+        int year = LocalDate.now().getYear();
+        // Connections have auto-commit off, so the DDL needs a transaction to be committed.
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int purchaseYear = year; purchaseYear <= year + 1; purchaseYear++) {
+                    jdbcTemplate.execute("select create_automobiles_partition(" + purchaseYear + ")");
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not create the automobiles partitions for {} and {}, will retry", year, year + 1, e);
+        }
+    }
+}
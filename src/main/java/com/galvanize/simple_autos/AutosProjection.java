@@ -0,0 +1,46 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+// Sparse-fieldset counterpart of AutosList: each automobile holds only the requested fields.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AutosProjection {
+    private List<Map<String, Object>> automobiles;
+    private Long next;
+
+    public AutosProjection(List<Map<String, Object>> automobiles, Long next) {
+        this.automobiles = automobiles;
+        this.next = next;
+    }
+
+    public List<Map<String, Object>> getAutomobiles() {
+        return automobiles;
+    }
+
+    public void setAutomobiles(List<Map<String, Object>> automobiles) {
+        this.automobiles = automobiles;
+    }
+
+    public Long getNext() {
+        return next;
+    }
+
+    public void setNext(Long next) {
+        this.next = next;
+    }
+
+    public boolean isEmpty() {
+        return automobiles.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "AutosProjection{" +
+                "automobiles=" + automobiles +
+                ", next=" + next +
+                '}';
+    }
+}
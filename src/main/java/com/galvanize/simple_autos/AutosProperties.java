@@ -0,0 +1,665 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties("autos")
+public class AutosProperties {
+
+    private final Bulk bulk = new Bulk();
+    private final Http http = new Http();
+    private final Replica replica = new Replica();
+    private final Stats stats = new Stats();
+    private final WriteBehind writeBehind = new WriteBehind();
+    private final Events events = new Events();
+    private final Idempotency idempotency = new Idempotency();
+    private final Coalesce coalesce = new Coalesce();
+    private final Pool pool = new Pool();
+    private final Search search = new Search();
+    private final RateLimit rateLimit = new RateLimit();
+    private final Reactive reactive = new Reactive();
+    private final ListCache listCache = new ListCache();
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Coalesce getCoalesce() {
+        return coalesce;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    public ListCache getListCache() {
+        return listCache;
+    }
+
+    public static class Bulk {
+        private int batchSize = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Http {
+        private String listCacheControl = "no-cache";
+        private String itemCacheControl = "no-cache";
+
+        public String getListCacheControl() {
+            return listCacheControl;
+        }
+
+        public void setListCacheControl(String listCacheControl) {
+            this.listCacheControl = listCacheControl;
+        }
+
+        public String getItemCacheControl() {
+            return itemCacheControl;
+        }
+
+        public void setItemCacheControl(String itemCacheControl) {
+            this.itemCacheControl = itemCacheControl;
+        }
+    }
+
+    public static class Replica {
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+    }
+
+    public static class Stats {
+        private boolean materialized = false;
+        private Duration refreshInterval = Duration.ofSeconds(60);
+
+        public boolean isMaterialized() {
+            return materialized;
+        }
+
+        public void setMaterialized(boolean materialized) {
+            this.materialized = materialized;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class WriteBehind {
+        private boolean enabled = false;
+        private int capacity = 10_000;
+        private int batchSize = 500;
+        private Duration flushInterval = Duration.ofMillis(200);
+        private String journal;
+        private boolean fsync = false;
+        private int maxRetries = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public String getJournal() {
+            return journal;
+        }
+
+        public void setJournal(String journal) {
+            this.journal = journal;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    public static class Events {
+        private int bufferSize = 1024;
+        private int subscriberQueue = 256;
+        private AutoChangeBus.Overflow overflow = AutoChangeBus.Overflow.DISCONNECT;
+        private Duration timeout = Duration.ofMinutes(30);
+        private int senderThreads = 4;
+        private int senderQueue = 1000;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getSubscriberQueue() {
+            return subscriberQueue;
+        }
+
+        public void setSubscriberQueue(int subscriberQueue) {
+            this.subscriberQueue = subscriberQueue;
+        }
+
+        public AutoChangeBus.Overflow getOverflow() {
+            return overflow;
+        }
+
+        public void setOverflow(AutoChangeBus.Overflow overflow) {
+            this.overflow = overflow;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public int getSenderQueue() {
+            return senderQueue;
+        }
+
+        public void setSenderQueue(int senderQueue) {
+            this.senderQueue = senderQueue;
+        }
+    }
+
+    public static class Idempotency {
+        private Duration keyTtl = Duration.ofHours(24);
+        private long maxKeys = 100_000;
+
+        public Duration getKeyTtl() {
+            return keyTtl;
+        }
+
+        public void setKeyTtl(Duration keyTtl) {
+            this.keyTtl = keyTtl;
+        }
+
+        public long getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(long maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+    }
+
+    public static class Coalesce {
+        private Duration ttl = Duration.ofMillis(500);
+        private long maxEntries = 10_000;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class Pool {
+        private final Adaptive adaptive = new Adaptive();
+
+        public Adaptive getAdaptive() {
+            return adaptive;
+        }
+
+        public static class Adaptive {
+            private boolean enabled = false;
+            private int minSize = 10;
+            private int maxSize = 50;
+            private int step = 2;
+            private Duration growAbove = Duration.ofMillis(20);
+            private Duration shrinkBelow = Duration.ofMillis(2);
+            private Duration interval = Duration.ofSeconds(10);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMinSize() {
+                return minSize;
+            }
+
+            public void setMinSize(int minSize) {
+                this.minSize = minSize;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public int getStep() {
+                return step;
+            }
+
+            public void setStep(int step) {
+                this.step = step;
+            }
+
+            public Duration getGrowAbove() {
+                return growAbove;
+            }
+
+            public void setGrowAbove(Duration growAbove) {
+                this.growAbove = growAbove;
+            }
+
+            public Duration getShrinkBelow() {
+                return shrinkBelow;
+            }
+
+            public void setShrinkBelow(Duration shrinkBelow) {
+                this.shrinkBelow = shrinkBelow;
+            }
+
+            public Duration getInterval() {
+                return interval;
+            }
+
+            public void setInterval(Duration interval) {
+                this.interval = interval;
+            }
+        }
+    }
+
+    public static class Search {
+        private boolean enabled = true;
+        private boolean buildOnStartup = true;
+        private Duration catchUpInterval = Duration.ofSeconds(60);
+        private int maxResults = 100;
+        private Map<String, String> aliases = new HashMap<>(Map.of("chevy", "chevrolet", "vw", "volkswagen"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isBuildOnStartup() {
+            return buildOnStartup;
+        }
+
+        public void setBuildOnStartup(boolean buildOnStartup) {
+            this.buildOnStartup = buildOnStartup;
+        }
+
+        public Duration getCatchUpInterval() {
+            return catchUpInterval;
+        }
+
+        public void setCatchUpInterval(Duration catchUpInterval) {
+            this.catchUpInterval = catchUpInterval;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public Map<String, String> getAliases() {
+            return aliases;
+        }
+
+        public void setAliases(Map<String, String> aliases) {
+            this.aliases = aliases;
+        }
+    }
+
+    public static class RateLimit {
+        private boolean enabled = false;
+        private String apiKeyHeader = "X-API-Key";
+        private Set<String> apiKeys = new HashSet<>();
+        private long maxClients = 100_000;
+        private Duration clientTtl = Duration.ofMinutes(10);
+        private final Budget expensive = new Budget(20, 2);
+        private final Budget cheap = new Budget(200, 100);
+        private final Concurrency concurrency = new Concurrency();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getApiKeyHeader() {
+            return apiKeyHeader;
+        }
+
+        public void setApiKeyHeader(String apiKeyHeader) {
+            this.apiKeyHeader = apiKeyHeader;
+        }
+
+        public Set<String> getApiKeys() {
+            return apiKeys;
+        }
+
+        public void setApiKeys(Set<String> apiKeys) {
+            this.apiKeys = apiKeys;
+        }
+
+        public long getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(long maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public Duration getClientTtl() {
+            return clientTtl;
+        }
+
+        public void setClientTtl(Duration clientTtl) {
+            this.clientTtl = clientTtl;
+        }
+
+        public Budget getExpensive() {
+            return expensive;
+        }
+
+        public Budget getCheap() {
+            return cheap;
+        }
+
+        public Concurrency getConcurrency() {
+            return concurrency;
+        }
+
+        public static class Budget {
+            private int burst;
+            private double perSecond;
+
+            public Budget(int burst, double perSecond) {
+                this.burst = burst;
+                this.perSecond = perSecond;
+            }
+
+            public int getBurst() {
+                return burst;
+            }
+
+            public void setBurst(int burst) {
+                this.burst = burst;
+            }
+
+            public double getPerSecond() {
+                return perSecond;
+            }
+
+            public void setPerSecond(double perSecond) {
+                this.perSecond = perSecond;
+            }
+        }
+
+        public static class Concurrency {
+            private boolean enabled = true;
+            private int initialLimit = 40;
+            private int minLimit = 8;
+            private int maxLimit = 200;
+            private double tolerance = 2.0;
+            private double backoff = 0.9;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getInitialLimit() {
+                return initialLimit;
+            }
+
+            public void setInitialLimit(int initialLimit) {
+                this.initialLimit = initialLimit;
+            }
+
+            public int getMinLimit() {
+                return minLimit;
+            }
+
+            public void setMinLimit(int minLimit) {
+                this.minLimit = minLimit;
+            }
+
+            public int getMaxLimit() {
+                return maxLimit;
+            }
+
+            public void setMaxLimit(int maxLimit) {
+                this.maxLimit = maxLimit;
+            }
+
+            public double getTolerance() {
+                return tolerance;
+            }
+
+            public void setTolerance(double tolerance) {
+                this.tolerance = tolerance;
+            }
+
+            public double getBackoff() {
+                return backoff;
+            }
+
+            public void setBackoff(double backoff) {
+                this.backoff = backoff;
+            }
+        }
+    }
+
+    public static class Reactive {
+        private String url;
+        private String username;
+        private String password;
+        private int initialSize = 10;
+        private int maxSize = 20;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getInitialSize() {
+            return initialSize;
+        }
+
+        public void setInitialSize(int initialSize) {
+            this.initialSize = initialSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class ListCache {
+        private boolean enabled = true;
+        private long maxEntries = 10_000;
+        private Duration ttl = Duration.ofSeconds(60);
+        private String l2CacheName;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public String getL2CacheName() {
+            return l2CacheName;
+        }
+
+        public void setL2CacheName(String l2CacheName) {
+            this.l2CacheName = l2CacheName;
+        }
+    }
+}
@@ -1,13 +1,33 @@
 package com.galvanize.simple_autos;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AutosRepository extends JpaRepository<Automobile, Long> {
-    List<Automobile> findByColorContainsAndMakeContains(String color, String make);
+public interface AutosRepository extends JpaRepository<Automobile, Long>, AutosRepositoryCustom {
     Optional<Automobile> findByVin(String vin);
+    boolean existsByVin(String vin);
+    List<Automobile> findByVinIn(Collection<String> vins);
+    List<Automobile> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+    List<Automobile> findByLastModifiedGreaterThanEqual(Instant since);
+
+    // A null version skips the optimistic check; otherwise id and version must both match.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Automobile a set a.color = :color, a.owner = :owner, a.version = a.version + 1, " +
+            "a.lastModified = :now where a.vin = :vin and (:version is null or (a.id = :id and a.version = :version))")
+    int updateColorAndOwner(@Param("vin") String vin, @Param("color") String color, @Param("owner") String owner,
+                            @Param("id") Long id, @Param("version") Long version, @Param("now") Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Automobile a where a.vin = :vin and (:version is null or (a.id = :id and a.version = :version))")
+    int deleteByVin(@Param("vin") String vin, @Param("id") Long id, @Param("version") Long version);
 }
@@ -0,0 +1,19 @@
+package com.galvanize.simple_autos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface AutosRepositoryCustom {
+    Set<String> PROJECTABLE_FIELDS = Set.of("id", "vin", "make", "model", "year", "color", "owner", "purchaseDate");
+
+    List<Automobile> findAutos(AutosFilter filter, long after, int limit);
+    // Selects only the given columns (plus id for the cursor) into plain maps; nothing enters the persistence context.
+    List<Map<String, Object>> findFields(AutosFilter filter, List<String> fields, long after, int limit);
+    // GROUP BY attribute with the filter applied, keyed by the attribute's value in ascending order.
+    Map<String, Long> countBy(String attribute, AutosFilter filter);
+    void forEachAuto(Consumer<? super Automobile> action);
+    // Streams the filtered rows in id order through a server-side cursor.
+    void forEachAuto(AutosFilter filter, Consumer<? super Automobile> action);
+}
@@ -0,0 +1,152 @@
+package com.galvanize.simple_autos;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+class AutosRepositoryCustomImpl implements AutosRepositoryCustom {
+
+    private static final int FETCH_SIZE = 500;
+    static final char ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    AutosRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Automobile> findAutos(AutosFilter filter, long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Automobile> query = cb.createQuery(Automobile.class);
+        Root<Automobile> auto = query.from(Automobile.class);
+        List<Predicate> predicates = filterPredicates(cb, auto, filter);
+        predicates.add(cb.greaterThan(auto.<Long>get("id"), after));
+        query.where(predicates.toArray(Predicate[]::new)).orderBy(cb.asc(auto.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(AutosFilter filter, List<String> fields, long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Automobile> auto = query.from(Automobile.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(auto.get("id").alias("id"));
+        for (String field : fields) {
+            if (!field.equals("id")) {
+                selections.add(auto.get(field).alias(field));
+            }
+        }
+        List<Predicate> predicates = filterPredicates(cb, auto, filter);
+        predicates.add(cb.greaterThan(auto.<Long>get("id"), after));
+        query.multiselect(selections).where(predicates.toArray(Predicate[]::new)).orderBy(cb.asc(auto.get("id")));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", tuple.get("id"));
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public Map<String, Long> countBy(String attribute, AutosFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Automobile> auto = query.from(Automobile.class);
+        Path<Object> key = auto.get(attribute);
+        query.multiselect(key.alias("key"), cb.count(auto).alias("count"))
+                .where(filterPredicates(cb, auto, filter).toArray(Predicate[]::new))
+                .groupBy(key)
+                .orderBy(cb.asc(key));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            counts.put(String.valueOf(tuple.get("key")), tuple.get("count", Long.class));
+        }
+        return counts;
+    }
+
+    // Must run inside a transaction so the driver keeps a server-side cursor open.
+    // Each row is detached once handled so the persistence context never grows.
+    @Override
+    public void forEachAuto(Consumer<? super Automobile> action) {
+        forEachAuto(new AutosFilter(null, null, null), action);
+    }
+
+    @Override
+    public void forEachAuto(AutosFilter filter, Consumer<? super Automobile> action) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Automobile> query = cb.createQuery(Automobile.class);
+        Root<Automobile> auto = query.from(Automobile.class);
+        query.where(filterPredicates(cb, auto, filter).toArray(Predicate[]::new)).orderBy(cb.asc(auto.get("id")));
+        try (Stream<Automobile> autos = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            autos.forEach(row -> {
+                action.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Automobile> auto, AutosFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getColor() != null) {
+            predicates.add(matches(cb, auto.<String>get("color"), filter.getColor(), filter.getMatch()));
+        }
+        if (filter.getMake() != null) {
+            predicates.add(matches(cb, auto.<String>get("make"), filter.getMake(), filter.getMatch()));
+        }
+        // Range scans on ix_automobiles_purchase_date (db/migration/*/V4__purchase_date.sql).
+        if (filter.getPurchasedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(auto.<LocalDate>get("purchaseDate"), filter.getPurchasedFrom()));
+        }
+        if (filter.getPurchasedTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(auto.<LocalDate>get("purchaseDate"), filter.getPurchasedTo()));
+        }
+        return predicates;
+    }
+
+    // EXACT and PREFIX compare lower(column) so Postgres can use the functional
+    // indexes from db/migration/postgresql/V2__search_indexes.sql; CONTAINS always falls back to a scan.
+    private static Predicate matches(CriteriaBuilder cb, Expression<String> column, String value, MatchMode match) {
+        Expression<String> lowered = cb.lower(column);
+        return switch (match) {
+            case EXACT -> cb.equal(lowered, value);
+            case PREFIX -> cb.like(lowered, escapeLike(value) + "%", ESCAPE);
+            case CONTAINS -> cb.like(lowered, "%" + escapeLike(value) + "%", ESCAPE);
+        };
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!reactive")
+public class AutosSearchController {
+
+    AutosSearchService searchService;
+
+    public AutosSearchController(AutosSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // Free text over make, model, color, owner and VIN, e.g. ?q=chevy silverado red; best match first.
+    // Cars written through other instances show up within autos.search.catch-up-interval.
+    @GetMapping("/api/autos/search")
+    public ResponseEntity<AutosList> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        AutosList autosList = searchService.search(q, limit);
+        if (autosList.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(autosList);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Void> notReady(SearchIndexNotReadyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+    }
+}
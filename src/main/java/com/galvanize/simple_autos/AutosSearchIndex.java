@@ -0,0 +1,331 @@
+package com.galvanize.simple_autos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory inverted index over make, model, color, owner and VIN for GET /api/autos/search.
+ * A query token matches a term exactly, as a prefix, or within one edit (found through a
+ * deletion neighbourhood of the vocabulary; VINs are left out of it). Every result matches the
+ * query token with the fewest documents; results are ranked by how many of the other tokens they
+ * also match, then by the summed idf of the matching terms, weighted by how each term matched.
+ *
+ * Writes are serialized; searches run without locks against append-only postings. Updating an
+ * auto appends a new document and tombstones the old one, so postings stay sorted by document
+ * number and can be intersected with a linear merge.
+ */
+public class AutosSearchIndex {
+
+    static final float EXACT = 1.0f;
+    static final float PREFIX = 0.7f;
+    static final float FUZZY = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final long DELETED = -1;
+
+    private final Map<String, String> aliases;
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    // A term with one character removed -> the terms it came from.
+    private final ConcurrentHashMap<String, Set<String>> deletions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> docByVin = new ConcurrentHashMap<>();
+    // Document number -> automobile id, DELETED for tombstones.
+    private volatile long[] ids = new long[1024];
+    private long[] versions = new long[1024];
+    private volatile int docCount;
+    private int deleted;
+
+    public AutosSearchIndex(Map<String, String> aliases) {
+        this.aliases = aliases;
+    }
+
+    public synchronized void put(Automobile auto) {
+        if (auto.getVin() == null) {
+            return;
+        }
+        remove(auto.getVin());
+        int doc = docCount;
+        if (doc == ids.length) {
+            ids = Arrays.copyOf(ids, doc * 2);
+            versions = Arrays.copyOf(versions, doc * 2);
+        }
+        ids[doc] = auto.getId();
+        versions[doc] = auto.getVersion();
+        Set<String> words = new LinkedHashSet<>();
+        for (String field : new String[]{auto.getMake(), auto.getModel(), auto.getColor(), auto.getOwner()}) {
+            words.addAll(tokenize(field));
+        }
+        for (String word : words) {
+            Postings postings = postings(word);
+            if (!postings.fuzzy) {
+                postings.fuzzy = true;
+                addDeletions(word);
+            }
+            postings.add(doc);
+        }
+        String vin = auto.getVin().toLowerCase();
+        if (!words.contains(vin)) {
+            postings(vin).add(doc);
+        }
+        docByVin.put(auto.getVin(), doc);
+        docCount = doc + 1;
+    }
+
+    // Skips the auto when the same row is already indexed at this version or a later one.
+    public synchronized void putIfNewer(Automobile auto) {
+        Integer doc = auto.getVin() == null ? null : docByVin.get(auto.getVin());
+        if (doc == null || ids[doc] != auto.getId() || versions[doc] < auto.getVersion()) {
+            put(auto);
+        }
+    }
+
+    public synchronized void remove(String vin) {
+        Integer doc = docByVin.remove(vin);
+        if (doc != null) {
+            ids[doc] = DELETED;
+            deleted++;
+        }
+    }
+
+    public int size() {
+        return docByVin.size();
+    }
+
+    // Share of documents that are tombstones; a rebuild reclaims them.
+    public synchronized double deletedRatio() {
+        return docCount == 0 ? 0 : (double) deleted / docCount;
+    }
+
+    // Ids of the best matching automobiles, best first.
+    public List<Long> search(String query, int limit) {
+        List<Map<String, Float>> tokens = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            Map<String, Float> expansions = expand(aliases.getOrDefault(token, token));
+            if (!expansions.isEmpty()) {
+                tokens.add(expansions);
+            }
+        }
+        if (tokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        // Candidates come from the rarest token, so common tokens only filter and score.
+        tokens.sort(Comparator.comparingLong(this::docFrequency));
+        int[] candidates = union(tokens.get(0).keySet());
+        float[] scores = new float[candidates.length];
+        int[] hits = new int[candidates.length];
+        int documents = Math.max(1, docCount);
+        for (Map<String, Float> token : tokens) {
+            float[] best = new float[candidates.length];
+            for (Map.Entry<String, Float> term : token.entrySet()) {
+                Postings postings = terms.get(term.getKey());
+                float weight = term.getValue() * (float) Math.log(1 + (double) documents / Math.max(1, postings.size));
+                mergeMax(candidates, postings, best, weight);
+            }
+            for (int i = 0; i < candidates.length; i++) {
+                if (best[i] > 0) {
+                    scores[i] += best[i];
+                    hits[i]++;
+                }
+            }
+        }
+        return top(candidates, scores, hits, limit);
+    }
+
+    private List<Long> top(int[] candidates, float[] scores, int[] hits, int limit) {
+        Comparator<Integer> ranking = Comparator.<Integer>comparingInt(i -> hits[i]).thenComparingDouble(i -> scores[i]);
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, ranking);
+        long[] ids = this.ids;
+        for (int i = 0; i < candidates.length; i++) {
+            if (ids[candidates[i]] == DELETED) {
+                continue;
+            }
+            top.offer(i);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        Long[] ranked = new Long[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = ids[candidates[top.poll()]];
+        }
+        return Arrays.asList(ranked);
+    }
+
+    Map<String, Float> expand(String token) {
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        if (terms.containsKey(token)) {
+            expansions.put(token, EXACT);
+        }
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            int added = 0;
+            for (String term : terms.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (added++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, PREFIX);
+            }
+        }
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyMatches(token)) {
+                expansions.putIfAbsent(term, FUZZY);
+            }
+        }
+        return expansions;
+    }
+
+    private Set<String> fuzzyMatches(String token) {
+        Set<String> candidates = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+        for (int i = 0; i < token.length(); i++) {
+            String deletion = token.substring(0, i) + token.substring(i + 1);
+            Postings postings = terms.get(deletion);
+            if (postings != null && postings.fuzzy) {
+                candidates.add(deletion);
+            }
+            candidates.addAll(deletions.getOrDefault(deletion, Set.of()));
+        }
+        candidates.removeIf(term -> term.equals(token) || !withinOneEdit(token, term));
+        return candidates;
+    }
+
+    // Damerau-Levenshtein distance <= 1 (one insertion, deletion, substitution or transposition).
+    static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (a.length() == b.length()) {
+            if (i == a.length()) {
+                return true;
+            }
+            if (a.substring(i + 1).equals(b.substring(i + 1))) {
+                return true;
+            }
+            return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        String longer = a.length() > b.length() ? a : b;
+        String shorter = a.length() > b.length() ? b : a;
+        return longer.substring(i + 1).equals(shorter.substring(i));
+    }
+
+    private long docFrequency(Map<String, Float> token) {
+        long df = 0;
+        for (String term : token.keySet()) {
+            df += terms.get(term).size;
+        }
+        return df;
+    }
+
+    // Sorted, distinct document numbers of all the given terms.
+    private int[] union(Set<String> termSet) {
+        int total = 0;
+        List<int[]> lists = new ArrayList<>(termSet.size());
+        for (String term : termSet) {
+            int[] docs = terms.get(term).snapshot();
+            lists.add(docs);
+            total += docs.length;
+        }
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int[] all = new int[total];
+        int at = 0;
+        for (int[] docs : lists) {
+            System.arraycopy(docs, 0, all, at, docs.length);
+            at += docs.length;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    // Both lists are sorted, so one linear pass finds the candidates that contain the term.
+    private static void mergeMax(int[] candidates, Postings postings, float[] best, float weight) {
+        int size = postings.size;
+        int[] docs = postings.docs;
+        int i = 0;
+        int j = 0;
+        while (i < candidates.length && j < size) {
+            int doc = docs[j];
+            if (candidates[i] < doc) {
+                i++;
+            } else if (candidates[i] > doc) {
+                j++;
+            } else {
+                if (weight > best[i]) {
+                    best[i] = weight;
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private Postings postings(String term) {
+        return terms.computeIfAbsent(term, key -> new Postings());
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            String deletion = term.substring(0, i) + term.substring(i + 1);
+            deletions.computeIfAbsent(deletion, key -> ConcurrentHashMap.newKeySet()).add(term);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Append-only, sorted by document number. Readers take size before docs, and the writer
+    // publishes docs before size, so every read sees a consistent prefix.
+    private static final class Postings {
+        volatile int[] docs = new int[4];
+        volatile int size;
+        volatile boolean fuzzy;
+
+        void add(int doc) {
+            int[] current = docs;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+                docs = current;
+            }
+            current[size] = doc;
+            size = size + 1;
+        }
+
+        int[] snapshot() {
+            int n = size;
+            return Arrays.copyOf(docs, n);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * GET /api/autos/search. The index is built from a table scan once the application is ready, or
+ * on the first search with autos.search.build-on-startup=false, and kept current from committed
+ * changes. Changes that commit while a rebuild is scanning are
+ * replayed onto the new index before it replaces the old one. Rebuilds also run when more than
+ * half of the indexed documents are superseded or deleted.
+ *
+ * Committed-change events are local to this instance. Inserts and updates made by other instances
+ * are picked up every autos.search.catch-up-interval by reading rows whose last_modified falls in
+ * the window since the previous catch-up (widened by one interval for clock skew and late commits).
+ * Deletes leave no row to find: the car stays indexed until the next rebuild, and search drops
+ * ids that no longer load.
+ */
+@Service
+@EnableScheduling
+public class AutosSearchService {
+
+    AutosService autosService;
+    AutosRepository autosRepository;
+    AutosProperties.Search config;
+    TaskExecutor executor;
+
+    private volatile AutosSearchIndex index;
+    private List<AutoChangedEvent> changesDuringRebuild;
+    // last_modified that the current index is known to cover.
+    private volatile Instant caughtUpTo;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public AutosSearchService(AutosService autosService, AutosRepository autosRepository, AutosProperties properties,
+                              @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor) {
+        this.autosService = autosService;
+        this.autosRepository = autosRepository;
+        this.config = properties.getSearch();
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (config.isEnabled() && config.isBuildOnStartup()) {
+            rebuildInBackground();
+        }
+    }
+
+    public AutosList search(String query, int limit) {
+        AutosSearchIndex current = index;
+        if (current == null) {
+            if (config.isEnabled()) {
+                rebuildInBackground();
+            }
+            throw new SearchIndexNotReadyException();
+        }
+        List<Long> ids = current.search(query, Math.max(1, Math.min(limit, config.getMaxResults())));
+        if (ids.isEmpty()) {
+            return new AutosList(List.of());
+        }
+        Map<Long, Automobile> byId = new HashMap<>();
+        for (Automobile auto : autosRepository.findAllById(ids)) {
+            byId.put(auto.getId(), auto);
+        }
+        List<Automobile> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Automobile auto = byId.get(id);
+            if (auto != null) {
+                ranked.add(auto);
+            }
+        }
+        return new AutosList(ranked);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAutoChanged(AutoChangedEvent event) {
+        AutosSearchIndex current;
+        synchronized (this) {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+            current = index;
+        }
+        if (current != null) {
+            apply(current, event);
+            if (current.deletedRatio() > 0.5) {
+                rebuildInBackground();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${autos.search.catch-up-interval:60s}")
+    public void catchUp() {
+        AutosSearchIndex current = index;
+        Instant since = caughtUpTo;
+        if (current == null || since == null || rebuilding.get()) {
+            return;
+        }
+        Instant started = Instant.now();
+        List<Automobile> changed = ReplicaRoutingDataSource.onPrimary(
+                () -> autosRepository.findByLastModifiedGreaterThanEqual(since.minus(config.getCatchUpInterval())));
+        changed.forEach(current::putIfNewer);
+        synchronized (this) {
+            if (index == current) {
+                caughtUpTo = started;
+            }
+        }
+        if (current.deletedRatio() > 0.5) {
+            rebuildInBackground();
+        }
+    }
+
+    void rebuildInBackground() {
+        if (rebuilding.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    void rebuild() {
+        AutosSearchIndex fresh = new AutosSearchIndex(config.getAliases());
+        Instant started = Instant.now();
+        synchronized (this) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            autosService.streamAutos(fresh::put);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            changesDuringRebuild.forEach(event -> apply(fresh, event));
+            changesDuringRebuild = null;
+            index = fresh;
+            caughtUpTo = started;
+        }
+    }
+
+    private static void apply(AutosSearchIndex index, AutoChangedEvent event) {
+        if (event.getType() == AutoChangedEvent.Type.DELETED || event.getAutomobile() == null) {
+            index.remove(event.getVin());
+        } else {
+            index.put(event.getAutomobile());
+        }
+    }
+}
@@ -1,66 +1,280 @@
 package com.galvanize.simple_autos;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 @Service
 public class AutosService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    // Projection rows are a few columns in a map and never enter the persistence context, so their
+    // pages may be ten times larger (AutosProjectionBenchmark compares the two at 10k rows).
+    static final int MAX_PROJECTION_PAGE_SIZE = 10_000;
+
     AutosRepository autosRepository;
+    ReadYourWritesWindow readYourWrites;
+    ApplicationEventPublisher events;
+    DistributionSummary listRows;
+    DistributionSummary streamRows;
+    DistributionSummary streamThroughput;
+    SingleFlight<String, Automobile> creates = new SingleFlight<>();
+    // Last committed {id, version} per changed VIN, kept longer than the VIN cache's 60s TTL.
+    Cache<String, long[]> committed = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .maximumSize(100_000)
+            .build();
+    private static final long[] DELETED = new long[0];
 
-    public AutosService(AutosRepository autosRepository) {
+    // Read-only methods are routed to the replica when one is configured (ReplicaDataSourceConfig).
+    public AutosService(AutosRepository autosRepository, ReadYourWritesWindow readYourWrites,
+                        ApplicationEventPublisher events, MeterRegistry meterRegistry) {
         this.autosRepository = autosRepository;
+        this.readYourWrites = readYourWrites;
+        this.events = events;
+        this.listRows = DistributionSummary.builder("autos.list.rows")
+                .description("Rows returned per list call")
+                .register(meterRegistry);
+        this.streamRows = DistributionSummary.builder("autos.stream.rows")
+                .description("Rows per NDJSON stream or export")
+                .register(meterRegistry);
+        this.streamThroughput = DistributionSummary.builder("autos.stream.throughput")
+                .description("Rows per second of each NDJSON stream or export")
+                .baseUnit("rows/s")
+                .register(meterRegistry);
     }
 
-    public AutosList getAutos() {
+    @Transactional(readOnly = true)
+    public AutosList getAutos(Long after, int limit) {
+        int pageSize = pageSize(limit);
+        return page(autosRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0 : after, Limit.of(pageSize + 1)), pageSize);
+    }
 
-        return new AutosList(autosRepository.findAll());
-    };
+    @Transactional(readOnly = true)
+    public AutosList getAutos(AutosFilter filter, Long after, int limit) {
+        if (filter.isEmpty()) {
+            return getAutos(after, limit);
+        }
+        int pageSize = pageSize(limit);
+        return page(autosRepository.findAutos(filter, after == null ? 0 : after, pageSize + 1), pageSize);
+    }
 
+    @Transactional(readOnly = true)
     public AutosList getAutos(String color, String make) {
-        List<Automobile> automobiles = autosRepository.findByColorContainsAndMakeContains(color,make);
-                if(!automobiles.isEmpty()){
-                    return new AutosList(automobiles);
-                }
-                return null;
+        return getAutos(new AutosFilter(color, make, MatchMode.PREFIX), null, MAX_PAGE_SIZE);
+    }
+
+    @Transactional(readOnly = true)
+    public AutosProjection getAutoFields(AutosFilter filter, List<String> fields, Long after, int limit) {
+        List<String> selected = new ArrayList<>(new LinkedHashSet<>(fields));
+        if (selected.isEmpty() || !AutosRepositoryCustom.PROJECTABLE_FIELDS.containsAll(selected)) {
+            throw new InvalidAutoException();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PROJECTION_PAGE_SIZE));
+        List<Map<String, Object>> rows = autosRepository.findFields(filter, selected, after == null ? 0 : after, pageSize + 1);
+        listRows.record(Math.min(rows.size(), pageSize));
+        Long next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            next = (Long) rows.get(pageSize - 1).get("id");
+        }
+        if (!selected.contains("id")) {
+            rows.forEach(row -> row.remove("id"));
+        }
+        return new AutosProjection(rows, next);
     }
 
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 
+    // Callers fetch one row more than the page size; its presence means there is a next page.
+    private AutosList page(List<Automobile> automobiles, int pageSize) {
+        listRows.record(Math.min(automobiles.size(), pageSize));
+        if (automobiles.size() > pageSize) {
+            automobiles = automobiles.subList(0, pageSize);
+            return new AutosList(automobiles, automobiles.get(pageSize - 1).getId());
+        }
+        return new AutosList(automobiles);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAutos(Consumer<? super Automobile> action) {
+        streamAutos(new AutosFilter(null, null, null), action);
+    }
+
+    // Rows and rows/sec of every completed stream are recorded (autos.stream.rows / autos.stream.throughput).
+    @Transactional(readOnly = true)
+    public void streamAutos(AutosFilter filter, Consumer<? super Automobile> action) {
+        long start = System.nanoTime();
+        LongAdder rows = new LongAdder();
+        autosRepository.forEachAuto(filter, auto -> {
+            action.accept(auto);
+            rows.increment();
+        });
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        streamRows.record(rows.sum());
+        streamThroughput.record(rows.sum() / seconds);
+    }
+
+
+    // Idempotent per VIN: concurrent creates for one VIN share a single insert, and a VIN that is
+    // already stored (unique constraint uk_automobiles_vin) returns the existing row, as long as it
+    // has the same details. A different car under a known VIN is a conflict, not a retry.
     public Automobile addAuto(Automobile auto) {
-        return autosRepository.save(auto);
+        if (auto.getVin() == null || auto.getVin().isBlank()) {
+            throw new InvalidAutoException();
+        }
+        Automobile saved = creates.run(auto.getVin(), () -> insertOrGet(auto));
+        if (saved != auto && !sameDetails(saved, auto)) {
+            throw new AutoAlreadyExistsException();
+        }
+        return saved;
     }
 
+    static boolean sameDetails(Automobile stored, Automobile requested) {
+        return stored.getYear() == requested.getYear()
+                && Objects.equals(stored.getMake(), requested.getMake())
+                && Objects.equals(stored.getModel(), requested.getModel())
+                && Objects.equals(stored.getColor(), requested.getColor())
+                && Objects.equals(stored.getOwner(), requested.getOwner())
+                && Objects.equals(stored.getPurchaseDate(), requested.getPurchaseDate());
+    }
+
+    private Automobile insertOrGet(Automobile auto) {
+        Automobile saved;
+        try {
+            saved = autosRepository.save(auto);
+        } catch (DataIntegrityViolationException e) {
+            return ReplicaRoutingDataSource.onPrimary(() -> autosRepository.findByVin(auto.getVin()))
+                    .orElseThrow(() -> e);
+        }
+        readYourWrites.markWritten(saved.getVin());
+        events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, saved.getVin(), saved));
+        return saved;
+    }
+
+    @Transactional
+    public List<Automobile> addAutos(List<Automobile> autos) {
+        List<Automobile> saved = autosRepository.saveAll(autos);
+        events.publishEvent(new AutosAddedEvent(saved));
+        for (Automobile auto : saved) {
+            readYourWrites.markWritten(auto.getVin());
+            events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, auto.getVin(), auto, true));
+        }
+        return saved;
+    }
+
+    // The returned entity is shared through the VIN cache (and ReadCoalescer); don't modify it.
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.AUTOS_BY_VIN, unless = "#result == null || !#root.target.isCurrent(#result)")
     public Automobile getAuto(String vin) {
+        if (readYourWrites.isRecentlyWritten(vin)) {
+            return ReplicaRoutingDataSource.onPrimary(() -> autosRepository.findByVin(vin)).orElse(null);
+        }
         return autosRepository.findByVin(vin).orElse(null);
     }
 
-    public Automobile updateAuto(String vin, String color, String owner) {
-        Optional<Automobile> oAuto = autosRepository.findByVin(vin);
-        if(oAuto.isPresent()){
-            oAuto.get().setColor(color);
-            oAuto.get().setOwner(owner);
-            return autosRepository.save(oAuto.get());
+    // A single conditional UPDATE; expectedVersion (from If-Match) is optional.
+    @Transactional
+    public Automobile updateAuto(String vin, String color, String owner, VersionTag expectedVersion) {
+        readYourWrites.markWritten(vin);
+        if (autosRepository.updateColorAndOwner(vin, color, owner, idOf(expectedVersion), versionOf(expectedVersion), Instant.now()) == 0) {
+            throw missingOrConflict(vin, expectedVersion);
+        }
+        Automobile updated = autosRepository.findByVin(vin).orElseThrow(AutoNotFoundException::new);
+        events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, vin, updated));
+        return updated;
+    }
+
+    // Write-behind batch from OwnerTransferQueue: one transaction, no version checks. VINs that no
+    // longer exist are skipped.
+    @Transactional
+    public int applyOwnerTransfers(List<OwnerTransfer> transfers) {
+        Instant now = Instant.now();
+        List<String> updated = new ArrayList<>(transfers.size());
+        for (OwnerTransfer transfer : transfers) {
+            readYourWrites.markWritten(transfer.getVin());
+            if (autosRepository.updateColorAndOwner(transfer.getVin(), transfer.getColor(), transfer.getOwner(), null, null, now) > 0) {
+                updated.add(transfer.getVin());
+            }
+        }
+        if (!updated.isEmpty()) {
+            for (Automobile auto : autosRepository.findByVinIn(updated)) {
+                events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, auto.getVin(), auto));
+            }
+        }
+        return updated.size();
+    }
+
+    @Transactional
+    public void deleteAuto(String vin, VersionTag expectedVersion) {
+        readYourWrites.markWritten(vin);
+        if (autosRepository.deleteByVin(vin, idOf(expectedVersion), versionOf(expectedVersion)) == 0) {
+            throw missingOrConflict(vin, expectedVersion);
+        }
+        events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, vin, null));
+    }
+
+    // Evicting in the writing method could run before its commit, letting a concurrent getAuto
+    // re-cache the old row. After commit a new load sees the new row, but a load that read the old
+    // row before the commit can still finish after the eviction, so the committed id and version are
+    // recorded first and getAuto only caches rows at least that new (see isCurrent). What is left is
+    // a put landing between isCurrent and the cache write, bounded by the cache TTL.
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = CacheConfig.AUTOS_BY_VIN, key = "#event.vin")
+    public void onAutoChanged(AutoChangedEvent event) {
+        if (event.getVin() != null) {
+            Automobile auto = event.getAutomobile();
+            committed.put(event.getVin(), auto == null ? DELETED : new long[]{auto.getId(), auto.getVersion()});
         }
-        return null;
+    }
 
+    // Ids come from a sequence, so a recreated VIN has a higher id than the row it replaced.
+    public boolean isCurrent(Automobile auto) {
+        long[] latest = committed.getIfPresent(auto.getVin());
+        if (latest == null) {
+            return true;
+        }
+        if (latest == DELETED) {
+            return false;
+        }
+        return auto.getId() > latest[0] || (auto.getId() == latest[0] && auto.getVersion() >= latest[1]);
+    }
+
+    // Only reached when nothing matched, so the happy path stays one statement.
+    private static Long idOf(VersionTag tag) {
+        return tag == null ? null : tag.getId();
+    }
 
-        /*
-        1.find automobile by vin
-            - if not found throw auto not found exception
-        2. change the color and owner
-        3. save that updated automobile
-        4. return updated automobile
-         */
+    private static Long versionOf(VersionTag tag) {
+        return tag == null ? null : tag.getVersion();
     }
 
-    public void deleteAuto(String vin) {
-        Optional<Automobile> oAuto = autosRepository.findByVin(vin);
-        if(oAuto.isPresent()){
-            autosRepository.delete(oAuto.get());
-        }else{
-            throw new AutoNotFoundException();
+    private RuntimeException missingOrConflict(String vin, VersionTag expectedVersion) {
+        if (expectedVersion != null && autosRepository.existsByVin(vin)) {
+            return new AutoVersionConflictException();
         }
+        return new AutoNotFoundException();
     }
 }
@@ -0,0 +1,51 @@
+package com.galvanize.simple_autos;
+
+import java.util.Map;
+
+public class AutosStats {
+    private Map<String, Long> make;
+    private Map<String, Long> color;
+    private Map<String, Long> year;
+
+    public AutosStats() {
+    }
+
+    public AutosStats(Map<String, Long> make, Map<String, Long> color, Map<String, Long> year) {
+        this.make = make;
+        this.color = color;
+        this.year = year;
+    }
+
+    public Map<String, Long> getMake() {
+        return make;
+    }
+
+    public void setMake(Map<String, Long> make) {
+        this.make = make;
+    }
+
+    public Map<String, Long> getColor() {
+        return color;
+    }
+
+    public void setColor(Map<String, Long> color) {
+        this.color = color;
+    }
+
+    public Map<String, Long> getYear() {
+        return year;
+    }
+
+    public void setYear(Map<String, Long> year) {
+        this.year = year;
+    }
+
+    @Override
+    public String toString() {
+        return "AutosStats{" +
+                "make=" + make +
+                ", color=" + color +
+                ", year=" + year +
+                '}';
+    }
+}
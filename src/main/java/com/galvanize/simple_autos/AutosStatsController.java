@@ -0,0 +1,23 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!reactive")
+public class AutosStatsController {
+
+    AutosStatsService statsService;
+
+    public AutosStatsController(AutosStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping("/api/autos/stats")
+    public AutosStats getStats(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                               @RequestParam(defaultValue = "PREFIX") MatchMode match) {
+        return statsService.getStats(new AutosFilter(color, make, match));
+    }
+}
@@ -0,0 +1,140 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Facet counts for GET /api/autos/stats. Filtered requests always run GROUP BY queries. Unfiltered
+ * ones can be served from an in-memory summary (autos.stats.materialized). Inserts update the
+ * summary in place. Updates and deletes do not load the old row, so they mark the affected facets
+ * stale, and the next read recomputes only those facets.
+ *
+ * Events are local, so writes made through other instances only show up when a facet is
+ * recomputed. Every facet is therefore marked stale each autos.stats.refresh-interval, and
+ * recomputes read the primary, never a lagging replica.
+ */
+@Service
+@EnableScheduling
+public class AutosStatsService {
+
+    AutosRepository autosRepository;
+    AutosProperties properties;
+
+    private final Facet makes = new Facet("make", Automobile::getMake);
+    private final Facet colors = new Facet("color", Automobile::getColor);
+    private final Facet years = new Facet("year", Automobile::getYear);
+
+    public AutosStatsService(AutosRepository autosRepository, AutosProperties properties) {
+        this.autosRepository = autosRepository;
+        this.properties = properties;
+    }
+
+    @Transactional(readOnly = true)
+    public AutosStats getStats(AutosFilter filter) {
+        if (filter.isEmpty() && properties.getStats().isMaterialized()) {
+            return new AutosStats(read(makes), read(colors), read(years));
+        }
+        return new AutosStats(
+                autosRepository.countBy(makes.attribute, filter),
+                autosRepository.countBy(colors.attribute, filter),
+                autosRepository.countBy(years.attribute, filter));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAutoChanged(AutoChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED -> {
+                makes.increment(event.getAutomobile());
+                colors.increment(event.getAutomobile());
+                years.increment(event.getAutomobile());
+            }
+            case UPDATED -> colors.stale = true;
+            case DELETED -> {
+                makes.stale = true;
+                colors.stale = true;
+                years.stale = true;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${autos.stats.refresh-interval:60s}")
+    public void expire() {
+        if (properties.getStats().isMaterialized()) {
+            makes.stale = true;
+            colors.stale = true;
+            years.stale = true;
+        }
+    }
+
+    // Refreshes of one facet are serialized on its refresh lock; the facet's own monitor only guards
+    // the flags and the swap, so increments never wait for the GROUP BY query.
+    private Map<String, Long> read(Facet facet) {
+        synchronized (facet.refresh) {
+            boolean refresh;
+            synchronized (facet) {
+                refresh = facet.stale;
+                if (refresh) {
+                    facet.stale = false;
+                    facet.refreshing = true;
+                }
+            }
+            if (refresh) {
+                ConcurrentHashMap<String, LongAdder> counts = null;
+                try {
+                    ConcurrentHashMap<String, LongAdder> loaded = new ConcurrentHashMap<>();
+                    ReplicaRoutingDataSource.onPrimary(() -> autosRepository.countBy(facet.attribute, new AutosFilter(null, null, null))).forEach((key, count) -> {
+                        LongAdder adder = new LongAdder();
+                        adder.add(count);
+                        loaded.put(key, adder);
+                    });
+                    counts = loaded;
+                } finally {
+                    synchronized (facet) {
+                        if (counts != null) {
+                            facet.counts = counts;
+                        } else {
+                            facet.stale = true;
+                        }
+                        facet.refreshing = false;
+                    }
+                }
+            }
+        }
+        Map<String, Long> snapshot = new TreeMap<>();
+        facet.counts.forEach((key, count) -> snapshot.put(key, count.sum()));
+        return snapshot;
+    }
+
+    private static class Facet {
+        final String attribute;
+        final Function<Automobile, Object> value;
+        volatile ConcurrentHashMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+        volatile boolean stale = true;
+        volatile boolean refreshing;
+        final Object refresh = new Object();
+
+        Facet(String attribute, Function<Automobile, Object> value) {
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        // An insert racing a recompute may or may not be in the query result, so recompute again.
+        // Checked and applied under the facet's monitor so a recompute can't start in between.
+        synchronized void increment(Automobile auto) {
+            if (stale || refreshing) {
+                stale = true;
+                return;
+            }
+            counts.computeIfAbsent(String.valueOf(value.apply(auto)), key -> new LongAdder()).increment();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// error is one of the stable codes below; the database's own message is only logged.
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BatchResult {
+    public static final String CONSTRAINT_VIOLATION = "constraint_violation";
+    public static final String DATABASE_ERROR = "database_error";
+
+    private int batch;
+    private int size;
+    private boolean inserted;
+    private String error;
+    // Positions in the input (0-based, across all batches) of the rows that were not saved.
+    private List<Long> failedRows = new ArrayList<>();
+
+    public BatchResult() {
+    }
+
+    public BatchResult(int batch, int size, boolean inserted, String error) {
+        this.batch = batch;
+        this.size = size;
+        this.inserted = inserted;
+        this.error = error;
+    }
+
+    public int getBatch() {
+        return batch;
+    }
+
+    public void setBatch(int batch) {
+        this.batch = batch;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isInserted() {
+        return inserted;
+    }
+
+    public void setInserted(boolean inserted) {
+        this.inserted = inserted;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<Long> getFailedRows() {
+        return failedRows;
+    }
+
+    public void setFailedRows(List<Long> failedRows) {
+        this.failedRows = failedRows;
+    }
+
+    public void addFailedRow(long row) {
+        failedRows.add(row);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "batch=" + batch +
+                ", size=" + size +
+                ", inserted=" + inserted +
+                ", error='" + error + '\'' +
+                ", failedRows=" + failedRows +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkIngestResult {
+    private final List<BatchResult> batches = new ArrayList<>();
+    private long inserted;
+    private long failed;
+    private String error;
+
+    public void add(BatchResult batch) {
+        batches.add(batch);
+        failed += batch.getFailedRows().size();
+        inserted += batch.getSize() - batch.getFailedRows().size();
+    }
+
+    public List<BatchResult> getBatches() {
+        return batches;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    // Set when the input could not be parsed any further; rows after that point were not read.
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkIngestResult{" +
+                "batches=" + batches +
+                ", inserted=" + inserted +
+                ", failed=" + failed +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
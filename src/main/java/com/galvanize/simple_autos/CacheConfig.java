@@ -0,0 +1,14 @@
+package com.galvanize.simple_autos;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Size and TTL come from spring.cache.caffeine.spec in application.properties. Caffeine stores
+    // references, so every caller gets the same Automobile instance: callers must treat cached
+    // entities as read-only and copy before changing one.
+    public static final String AUTOS_BY_VIN = "autosByVin";
+}
@@ -0,0 +1,79 @@
+package com.galvanize.simple_autos;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive cap on concurrent requests driven by database latency (mean time per JDBC statement).
+ * A smoothed latency is compared with a slowly rising baseline: above tolerance x baseline the
+ * limit is cut by the backoff factor, otherwise it grows by one while the limit is actually in
+ * use. Samples arriving while another thread updates the estimate are dropped, so callers never
+ * block on it.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.005;
+
+    private final AutosProperties.RateLimit.Concurrency config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock update = new ReentrantLock();
+    private volatile int limit;
+    private double smoothedNanos;
+    private double baselineNanos;
+
+    public ConcurrencyLimiter(AutosProperties.RateLimit.Concurrency config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a slot taken by tryAcquire; statements/nanos are the database work the request did.
+    public void release(int statements, long nanos) {
+        int running = inFlight.getAndDecrement();
+        if (statements > 0) {
+            sample((double) nanos / statements, running);
+        }
+    }
+
+    private void sample(double latencyNanos, int running) {
+        if (!update.tryLock()) {
+            return;
+        }
+        try {
+            if (baselineNanos == 0) {
+                smoothedNanos = latencyNanos;
+                baselineNanos = latencyNanos;
+                return;
+            }
+            smoothedNanos += SMOOTHING * (latencyNanos - smoothedNanos);
+            baselineNanos = Math.min(smoothedNanos, baselineNanos + BASELINE_DRIFT * (smoothedNanos - baselineNanos));
+            if (smoothedNanos > config.getTolerance() * baselineNanos) {
+                limit = Math.max(config.getMinLimit(), (int) (limit * config.getBackoff()));
+            } else if (running * 2 >= limit) {
+                limit = Math.min(config.getMaxLimit(), limit + 1);
+            }
+        } finally {
+            update.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
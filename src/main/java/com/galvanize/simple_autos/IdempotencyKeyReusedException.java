@@ -0,0 +1,4 @@
+package com.galvanize.simple_autos;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+}
@@ -0,0 +1,24 @@
+package com.galvanize.simple_autos;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+// Idempotency-Key values seen on POST /api/autos, with the VIN each one created.
+@Component
+public class IdempotencyKeys {
+
+    private final Cache<String, String> vinsByKey;
+
+    public IdempotencyKeys(AutosProperties properties) {
+        this.vinsByKey = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getIdempotency().getKeyTtl())
+                .maximumSize(properties.getIdempotency().getMaxKeys())
+                .build();
+    }
+
+    // Records the key for this VIN; returns the VIN it was first used with, or null if it is new.
+    public String claim(String key, String vin) {
+        return vinsByKey.asMap().putIfAbsent(key, vin);
+    }
+}
@@ -0,0 +1,7 @@
+package com.galvanize.simple_autos;
+
+public enum MatchMode {
+    EXACT,
+    PREFIX,
+    CONTAINS
+}
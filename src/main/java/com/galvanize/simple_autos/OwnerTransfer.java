@@ -0,0 +1,55 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+// A queued color/owner change for one VIN; also the line format of the write-behind journal.
+public class OwnerTransfer {
+    private final String vin;
+    private final String color;
+    private final String owner;
+
+    @JsonCreator
+    public OwnerTransfer(@JsonProperty("vin") String vin, @JsonProperty("color") String color,
+                         @JsonProperty("owner") String owner) {
+        this.vin = vin;
+        this.color = color;
+        this.owner = owner;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OwnerTransfer that = (OwnerTransfer) o;
+        return Objects.equals(vin, that.vin) && Objects.equals(color, that.color) && Objects.equals(owner, that.owner);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vin, color, owner);
+    }
+
+    @Override
+    public String toString() {
+        return "OwnerTransfer{" +
+                "vin='" + vin + '\'' +
+                ", color='" + color + '\'' +
+                ", owner='" + owner + '\'' +
+                '}';
+    }
+}
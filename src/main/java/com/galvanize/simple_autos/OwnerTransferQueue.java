@@ -0,0 +1,390 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for PATCH /api/autos/{vin} (autos.write-behind.enabled). Changes are held per VIN,
+ * so a burst for one VIN collapses to its last color/owner, and are applied in batches of
+ * batch-size, one transaction per batch, when a batch fills up or every flush-interval. A full
+ * queue rejects new VINs with 429. With a journal configured, every accepted change is appended
+ * (and optionally fsynced) before it is acknowledged, and replayed on startup. Changes for VINs
+ * that no longer exist and rows that fail on their own are dropped and counted, never retried forever.
+ * A synchronous update or delete first applies the VIN's queued change (applyPending), so an older
+ * queued change never lands on top of it.
+ */
+@Component
+public class OwnerTransferQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerTransferQueue.class);
+
+    AutosService autosService;
+    ObjectMapper mapper;
+    AutosProperties.WriteBehind config;
+
+    private final Map<String, OwnerTransfer> pending = new LinkedHashMap<>();
+    private final Object flushLock = new Object();
+    // Journal lines in pending order, waiting for the next group write; guarded by pending.
+    private final List<byte[]> journalQueue = new ArrayList<>();
+    private long journalQueued;
+    // Held while writing the journal; journalWritten is guarded by it.
+    private final Object journalLock = new Object();
+    private long journalWritten;
+    private final Counter applied;
+    private final Counter failedBatches;
+    private final Counter missing;
+    private final Counter deadLettered;
+    // Consecutive failures of the batch at the head of the queue; only touched under flushLock.
+    private int failedAttempts;
+    private ScheduledExecutorService flusher;
+    private FileChannel journal;
+
+    public OwnerTransferQueue(AutosService autosService, ObjectMapper mapper,
+                              AutosProperties properties, MeterRegistry meterRegistry) {
+        this.autosService = autosService;
+        this.mapper = mapper;
+        this.config = properties.getWriteBehind();
+        Gauge.builder("autos.write_behind.pending", this, OwnerTransferQueue::size)
+                .description("VINs with a queued owner/color change")
+                .register(meterRegistry);
+        this.applied = Counter.builder("autos.write_behind.applied").register(meterRegistry);
+        this.failedBatches = Counter.builder("autos.write_behind.failed_batches").register(meterRegistry);
+        this.missing = Counter.builder("autos.write_behind.missing")
+                .description("Queued changes dropped because the VIN no longer exists")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("autos.write_behind.dead_lettered")
+                .description("Queued changes dropped after failing on their own")
+                .register(meterRegistry);
+        if (config.isEnabled()) {
+            start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public int size() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    // Only the map update and the journal line's place in line happen under the pending lock; the
+    // disk write (and fsync) happens after, shared with concurrent offers (writeJournal).
+    public void offer(String vin, String color, String owner) {
+        OwnerTransfer transfer = new OwnerTransfer(vin, color, owner);
+        byte[] line = journal == null ? null : line(transfer);
+        long ticket = 0;
+        boolean batchFull;
+        synchronized (pending) {
+            if (!pending.containsKey(vin) && pending.size() >= config.getCapacity()) {
+                throw new WriteBehindFullException();
+            }
+            pending.put(vin, transfer);
+            if (line != null) {
+                journalQueue.add(line);
+                ticket = ++journalQueued;
+            }
+            batchFull = pending.size() >= config.getBatchSize();
+        }
+        writeJournal(ticket);
+        if (batchFull) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    // Called before a synchronous update or delete of vin. Holding flushLock also waits out a batch
+    // in flight that may contain the VIN. A transient failure requeues the change and is rethrown, so
+    // the synchronous write doesn't go ahead of it either.
+    public void applyPending(String vin) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        synchronized (flushLock) {
+            OwnerTransfer transfer;
+            synchronized (pending) {
+                transfer = pending.remove(vin);
+            }
+            if (transfer == null) {
+                return;
+            }
+            try {
+                apply(List.of(transfer));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    requeue(List.of(transfer));
+                    throw e;
+                }
+                deadLettered.increment();
+                log.error("Write-behind dead letter, dropping {}", transfer, e);
+            }
+            compactJournal();
+        }
+    }
+
+    // Batches are applied one at a time, in queue order, so a later change for a VIN never
+    // overtakes an earlier one. A batch that keeps failing is split after max-retries attempts so a
+    // single bad row can't block the queue.
+    void flush() {
+        synchronized (flushLock) {
+            while (true) {
+                List<OwnerTransfer> batch = drain();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (failedAttempts >= config.getMaxRetries()) {
+                    if (!applyRowByRow(batch)) {
+                        return;
+                    }
+                    failedAttempts = 0;
+                } else {
+                    try {
+                        apply(batch);
+                        failedAttempts = 0;
+                    } catch (RuntimeException e) {
+                        failedAttempts++;
+                        failedBatches.increment();
+                        log.warn("Write-behind batch of {} failed (attempt {}), will retry", batch.size(), failedAttempts, e);
+                        requeue(batch);
+                        return;
+                    }
+                }
+                compactJournal();
+                if (batch.size() < config.getBatchSize()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // VINs that no longer exist are acknowledged with 202 but skipped by the update; count them.
+    private void apply(List<OwnerTransfer> batch) {
+        int updated = autosService.applyOwnerTransfers(batch);
+        applied.increment(updated);
+        missing.increment(batch.size() - updated);
+    }
+
+    // Rows that fail on their own with a non-transient error go to the dead-letter log (and
+    // autos.write_behind.dead_lettered). A transient error means the database is the problem, not
+    // the row, so the rest is requeued and false is returned.
+    private boolean applyRowByRow(List<OwnerTransfer> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            OwnerTransfer transfer = batch.get(i);
+            try {
+                apply(List.of(transfer));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Write-behind row for {} failed, will retry", transfer.getVin(), e);
+                    requeue(batch.subList(i, batch.size()));
+                    return false;
+                }
+                deadLettered.increment();
+                log.error("Write-behind dead letter, dropping {}", transfer, e);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    private List<OwnerTransfer> drain() {
+        synchronized (pending) {
+            List<OwnerTransfer> batch = new ArrayList<>(Math.min(pending.size(), config.getBatchSize()));
+            Iterator<OwnerTransfer> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < config.getBatchSize()) {
+                batch.add(it.next());
+                it.remove();
+            }
+            return batch;
+        }
+    }
+
+    // A change that arrived while the batch was in flight is newer, so it wins over the retry.
+    private void requeue(List<OwnerTransfer> batch) {
+        synchronized (pending) {
+            Map<String, OwnerTransfer> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            batch.forEach(transfer -> pending.put(transfer.getVin(), transfer));
+            pending.putAll(newer);
+        }
+    }
+
+    private void start() {
+        String path = config.getJournal();
+        if (path != null && !path.isBlank()) {
+            try {
+                replay(Path.of(path));
+                journal = FileChannel.open(Path.of(path), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autos-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                OwnerTransfer transfer = mapper.readValue(line, OwnerTransfer.class);
+                pending.put(transfer.getVin(), transfer);
+            } catch (IOException e) {
+                // A torn last line from a crash mid-append was never acknowledged.
+                log.warn("Skipping unreadable write-behind journal line: {}", line);
+            }
+        }
+    }
+
+    // Group commit: whoever holds journalLock writes every line queued so far, with one fsync, so
+    // concurrent offers share a disk write instead of each waiting for their own. Returns once the
+    // line with this ticket is written. On failure the lines go back to the head of the queue.
+    private void writeJournal(long ticket) {
+        if (ticket == 0) {
+            return;
+        }
+        synchronized (journalLock) {
+            if (journalWritten >= ticket) {
+                return;
+            }
+            List<byte[]> lines;
+            long upTo;
+            synchronized (pending) {
+                lines = new ArrayList<>(journalQueue);
+                journalQueue.clear();
+                upTo = journalQueued;
+            }
+            try {
+                ByteBuffer[] buffers = lines.stream().map(ByteBuffer::wrap).toArray(ByteBuffer[]::new);
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    journal.write(buffers);
+                }
+                if (config.isFsync()) {
+                    journal.force(false);
+                }
+            } catch (IOException e) {
+                synchronized (pending) {
+                    journalQueue.addAll(0, lines);
+                }
+                throw new UncheckedIOException(e);
+            }
+            journalWritten = upTo;
+        }
+    }
+
+    // Rewrites the journal down to what is still pending once a batch has committed. The snapshot
+    // covers the lines waiting for a group write at that point, so those are dropped; offers made
+    // during the rewrite stay queued for the new file. If it fails the old journal stays in place;
+    // replaying already-applied changes is harmless.
+    private void compactJournal() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (journalLock) {
+            List<OwnerTransfer> snapshot;
+            int covered;
+            long coveredUpTo;
+            synchronized (pending) {
+                snapshot = new ArrayList<>(pending.values());
+                covered = journalQueue.size();
+                coveredUpTo = journalQueued;
+            }
+            Path path = Path.of(config.getJournal());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (OwnerTransfer transfer : snapshot) {
+                        out.write(ByteBuffer.wrap(line(transfer)));
+                    }
+                    out.force(false);
+                }
+                journal.close();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                synchronized (pending) {
+                    journalQueue.subList(0, covered).clear();
+                }
+                journalWritten = Math.max(journalWritten, coveredUpTo);
+            } catch (IOException e) {
+                log.warn("Could not compact write-behind journal {}", path, e);
+            } finally {
+                try {
+                    if (!journal.isOpen()) {
+                        journal = FileChannel.open(path, StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private byte[] line(OwnerTransfer transfer) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(transfer);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flush();
+        if (journal != null) {
+            synchronized (journalLock) {
+                journal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.galvanize.simple_autos;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Only the primary pool is resized; with a replica configured, unwrap() resolves to the primary
+// because it is called outside a read-only transaction.
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "autos.pool.adaptive.enabled", havingValue = "true")
+public class PoolConfig {
+
+    @Bean
+    public AdaptivePoolSizer adaptivePoolSizer(DataSource dataSource, MeterRegistry registry,
+                                               AutosProperties properties) throws SQLException {
+        return new AdaptivePoolSizer(dataSource.unwrap(HikariDataSource.class), registry, properties);
+    }
+}
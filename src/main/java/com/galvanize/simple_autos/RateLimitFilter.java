@@ -0,0 +1,164 @@
+package com.galvanize.simple_autos;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token buckets for /api requests. A client is its API key header only if that key is
+ * one of autos.rate-limit.api-keys; any other key is ignored, since minting new keys would otherwise
+ * mint fresh buckets. Everyone else is keyed by remote address, which behind a proxy relies on
+ * server.forward-headers-strategy. Full scans (?stream=true, match=CONTAINS, /api/autos/export)
+ * draw on the expensive budget, everything else on the cheap one, including unfiltered
+ * GET /api/autos, which reads one keyset page; an empty bucket is a 429 with Retry-After.
+ * Admitted requests then pass the ConcurrencyLimiter, which answers 503 before any connection is
+ * taken once database latency climbs. Runs inside RequestMetricsFilter so the database time of
+ * each request is available to the limiter. Async streams hold their slot until the response
+ * completes; only the statements run on the request thread feed the latency sample.
+ */
+public class RateLimitFilter extends OncePerRequestFilter implements Ordered {
+
+    enum Tier { EXPENSIVE, CHEAP }
+
+    private final AutosProperties.RateLimit config;
+    private final ConcurrencyLimiter limiter;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public RateLimitFilter(AutosProperties properties, MeterRegistry registry) {
+        this.config = properties.getRateLimit();
+        this.limiter = config.getConcurrency().isEnabled() ? new ConcurrencyLimiter(config.getConcurrency()) : null;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxClients())
+                .expireAfterAccess(config.getClientTtl())
+                .build();
+        this.rateLimited = Counter.builder("autos.requests.rejected").tag("reason", "rate-limit").register(registry);
+        this.shed = Counter.builder("autos.requests.rejected").tag("reason", "concurrency").register(registry);
+        if (limiter != null) {
+            Gauge.builder("autos.concurrency.limit", limiter, ConcurrencyLimiter::getLimit).register(registry);
+            Gauge.builder("autos.concurrency.in.flight", limiter, ConcurrencyLimiter::getInFlight).register(registry);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return RequestMetricsFilter.ORDER + 1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Tier tier = tier(request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(tier + "|" + client(request), key -> newBucket(tier, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            shed.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueryListener.QueryStats stats = RequestQueryListener.current();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release(stats);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release(stats);
+            }
+        }
+    }
+
+    // onComplete follows onTimeout and onError too, so async requests release exactly once.
+    private void release(RequestQueryListener.QueryStats stats) {
+        if (stats == null) {
+            limiter.release(0, 0);
+        } else {
+            limiter.release(stats.count, stats.nanos);
+        }
+    }
+
+    static Tier tier(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return Tier.CHEAP;
+        }
+        String uri = request.getRequestURI();
+        if (uri.equals("/api/autos/export")) {
+            return Tier.EXPENSIVE;
+        }
+        if (!uri.equals("/api/autos")) {
+            return Tier.CHEAP;
+        }
+        // Substring matches can't use the lower(col) text_pattern_ops indexes.
+        if ("true".equals(request.getParameter("stream")) || "CONTAINS".equalsIgnoreCase(request.getParameter("match"))) {
+            return Tier.EXPENSIVE;
+        }
+        return Tier.CHEAP;
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(config.getApiKeyHeader());
+        if (apiKey != null && config.getApiKeys().contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket newBucket(Tier tier, long now) {
+        AutosProperties.RateLimit.Budget budget = tier == Tier.EXPENSIVE ? config.getExpensive() : config.getCheap();
+        return new TokenBucket(budget.getBurst(), budget.getPerSecond(), now);
+    }
+
+    ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
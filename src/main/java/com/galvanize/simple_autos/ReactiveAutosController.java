@@ -0,0 +1,217 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * WebFlux counterpart of AutosController for the reactive profile, with the same routes, status
+ * codes and headers, except that list pages carry no ETag (it needs the whole page). List pages keep the AutosList JSON shape but are written element by element
+ * as rows arrive from R2DBC, so a slow client slows the query down instead of the page being
+ * buffered. Writes publish AutoChangedEvent like AutosService; owner updates are always applied
+ * directly (no write-behind queue). The listeners run synchronously and block (JPA, caches, SSE
+ * fan-out), so events are published from boundedElastic, never from an event-loop thread.
+ *
+ * RateLimitFilter and RequestMetricsFilter are servlet filters and do not apply here: the reactive
+ * profile has no per-client rate limit, no concurrency shedding and no autos.db.* or
+ * autos.response.size meters. http.server.requests is still recorded by WebFlux.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveAutosController {
+
+    ReactiveAutosRepository autosRepository;
+    AutosProperties properties;
+    IdempotencyKeys idempotencyKeys;
+    ApplicationEventPublisher events;
+    ObjectWriter autoWriter;
+
+    public ReactiveAutosController(ReactiveAutosRepository autosRepository, AutosProperties properties,
+                                   IdempotencyKeys idempotencyKeys, ApplicationEventPublisher events, ObjectMapper mapper) {
+        this.autosRepository = autosRepository;
+        this.properties = properties;
+        this.idempotencyKeys = idempotencyKeys;
+        this.events = events;
+        this.autoWriter = mapper.writerFor(Automobile.class);
+    }
+
+    @GetMapping(value = "/api/autos", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Void> getAutos(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                               @RequestParam(defaultValue = "PREFIX") MatchMode match,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo,
+                               @RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int limit,
+                               ServerHttpResponse response) {
+        int pageSize = Math.max(1, Math.min(limit, AutosService.MAX_PAGE_SIZE));
+        AutosFilter filter = new AutosFilter(color, make, match, purchasedFrom, purchasedTo);
+        Flux<Automobile> rows = autosRepository.findAutos(filter, after == null ? 0 : after, pageSize + 1);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setCacheControl(properties.getHttp().getListCacheControl());
+        // Headers are committed with the first buffer, so an empty page can still become a 204.
+        return response.writeWith(listPage(rows, pageSize, response.bufferFactory())
+                .switchIfEmpty(Mono.fromRunnable(() -> {
+                    response.setStatusCode(HttpStatus.NO_CONTENT);
+                    response.getHeaders().setContentType(null);
+                })));
+    }
+
+    // Sparse fieldsets are only served by the servlet stack; reject them rather than return full rows.
+    @GetMapping(value = "/api/autos", params = "fields")
+    public Mono<Void> getAutoFields() {
+        return Mono.error(new InvalidAutoException());
+    }
+
+    // Opt-in NDJSON stream of the (filtered) table, one row per line.
+    @GetMapping(value = "/api/autos", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Automobile> streamAutos(@RequestParam(required = false) String color, @RequestParam(required = false) String make,
+                                       @RequestParam(defaultValue = "PREFIX") MatchMode match,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedFrom,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate purchasedTo) {
+        return autosRepository.findAutos(new AutosFilter(color, make, match, purchasedFrom, purchasedTo), 0, null);
+    }
+
+    @PostMapping("/api/autos")
+    public Mono<Automobile> addAutos(@RequestBody Automobile auto,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (auto.getVin() == null || auto.getVin().isBlank()) {
+            return Mono.error(new InvalidAutoException());
+        }
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return insertOrGet(auto);
+        }
+        String claimedVin = idempotencyKeys.claim(idempotencyKey, auto.getVin());
+        if (claimedVin != null && !claimedVin.equals(auto.getVin())) {
+            return Mono.error(new IdempotencyKeyReusedException());
+        }
+        return insertOrGet(auto);
+    }
+
+    @GetMapping("/api/autos/{vin}")
+    public Mono<ResponseEntity<Automobile>> getAuto(@PathVariable String vin) {
+        return autosRepository.findByVin(vin)
+                .map(auto -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .eTag(AutosController.etag(auto))
+                            .header(HttpHeaders.CACHE_CONTROL, properties.getHttp().getItemCacheControl());
+                    if (auto.getLastModified() != null) {
+                        response.lastModified(auto.getLastModified());
+                    }
+                    return response.body(auto);
+                })
+                .defaultIfEmpty(ResponseEntity.ok().build());
+    }
+
+    @PatchMapping("/api/autos/{vin}")
+    public Mono<ResponseEntity<Automobile>> updateAuto(@PathVariable String vin, @RequestBody UpdateOwnerRequest update,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VersionTag expectedVersion = AutosController.expectedVersion(ifMatch);
+        return autosRepository.updateColorAndOwner(vin, update.getColor(), update.getOwner(), expectedVersion, Instant.now())
+                .flatMap(updated -> updated == 0 ? missingOrConflict(vin, expectedVersion) : autosRepository.findByVin(vin))
+                .switchIfEmpty(Mono.error(AutoNotFoundException::new))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(auto -> events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, vin, auto)))
+                .map(auto -> ResponseEntity.ok().eTag(AutosController.etag(auto)).body(auto));
+    }
+
+    @DeleteMapping("/api/autos/{vin}")
+    public Mono<ResponseEntity<Void>> deleteAuto(@PathVariable String vin,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VersionTag expectedVersion = AutosController.expectedVersion(ifMatch);
+        return autosRepository.deleteByVin(vin, expectedVersion)
+                .flatMap(deleted -> deleted == 0 ? missingOrConflict(vin, expectedVersion) : Mono.just(deleted))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(deleted -> events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, vin, null)))
+                .thenReturn(ResponseEntity.accepted().<Void>build());
+    }
+
+    // A VIN that is already stored (uk_automobiles_vin) answers with the existing row.
+    private Mono<Automobile> insertOrGet(Automobile auto) {
+        return autosRepository.insert(auto)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(saved -> events.publishEvent(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, saved.getVin(), saved)))
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> autosRepository.findByVin(auto.getVin()).switchIfEmpty(Mono.error(e))
+                                .flatMap(stored -> AutosService.sameDetails(stored, auto)
+                                        ? Mono.just(stored) : Mono.error(new AutoAlreadyExistsException())));
+    }
+
+    private <T> Mono<T> missingOrConflict(String vin, VersionTag expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new AutoNotFoundException());
+        }
+        return autosRepository.existsByVin(vin)
+                .flatMap(exists -> Mono.error(exists ? new AutoVersionConflictException() : new AutoNotFoundException()));
+    }
+
+    // {"automobiles":[...],"next":id}, with the next cursor known once the lookahead row (pageSize + 1) arrives.
+    static Flux<DataBuffer> listPage(Flux<Automobile> rows, int pageSize, DataBufferFactory buffers, ObjectWriter writer) {
+        return Flux.defer(() -> {
+            long[] state = new long[2]; // rows written, id of the last one
+            Flux<DataBuffer> items = rows.concatMap(auto -> {
+                if (state[0] == pageSize) {
+                    state[0]++;
+                    return Mono.empty();
+                }
+                String prefix = state[0] == 0 ? "{\"automobiles\":[" : ",";
+                state[0]++;
+                state[1] = auto.getId();
+                try {
+                    return Mono.just(buffers.wrap((prefix + writer.writeValueAsString(auto)).getBytes(StandardCharsets.UTF_8)));
+                } catch (JsonProcessingException e) {
+                    return Mono.error(e);
+                }
+            });
+            Mono<DataBuffer> end = Mono.fromSupplier(() -> {
+                if (state[0] == 0) {
+                    return null;
+                }
+                String next = state[0] > pageSize ? ",\"next\":" + state[1] : "";
+                return buffers.wrap(("]" + next + "}").getBytes(StandardCharsets.UTF_8));
+            });
+            return items.concatWith(end);
+        });
+    }
+
+    private Flux<DataBuffer> listPage(Flux<Automobile> rows, int pageSize, DataBufferFactory buffers) {
+        return listPage(rows, pageSize, buffers, autoWriter);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void noContent(AutoNotFoundException e) {}
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void invalidAuto(InvalidAutoException e) {}
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public void versionConflict(AutoVersionConflictException e) {}
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void alreadyExists(AutoAlreadyExistsException e) {}
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public void idempotencyKeyReused(IdempotencyKeyReusedException e) {}
+}
@@ -0,0 +1,178 @@
+package com.galvanize.simple_autos;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * R2DBC access to the automobiles table for the reactive profile, written against DatabaseClient
+ * with the same SQL semantics as AutosRepository (lower(column) matching, keyset pages by id,
+ * optional version checks). Rows are emitted as the driver reads them, on demand.
+ *
+ * Ids come from automobiles_seq like Hibernate's: with its pooled optimizer each nextval reserves
+ * a block of 50 ids for whoever drew it, so taking the drawn value itself can never collide with
+ * ids the JPA side hands out.
+ */
+public class ReactiveAutosRepository implements DisposableBean {
+
+    private static final String COLUMNS = "id, model_year, make, model, color, owner_name, purchase_date, vin, version, last_modified";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+    private final String nextIdSql;
+
+    public ReactiveAutosRepository(ConnectionPool pool) {
+        this.pool = pool;
+        this.client = DatabaseClient.create(pool);
+        this.nextIdSql = pool.getMetadata().getName().contains("H2")
+                ? "select next value for automobiles_seq"
+                : "select nextval('automobiles_seq')";
+    }
+
+    // limit is the number of rows to read, or null for all of them.
+    public Flux<Automobile> findAutos(AutosFilter filter, long after, Integer limit) {
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS).append(" from automobiles where id > :after");
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("after", after);
+        if (filter.getColor() != null) {
+            sql.append(" and ").append(matches("color", filter.getMatch()));
+            params.put("color", pattern(filter.getColor(), filter.getMatch()));
+        }
+        if (filter.getMake() != null) {
+            sql.append(" and ").append(matches("make", filter.getMatch()));
+            params.put("make", pattern(filter.getMake(), filter.getMatch()));
+        }
+        if (filter.getPurchasedFrom() != null) {
+            sql.append(" and purchase_date >= :purchasedFrom");
+            params.put("purchasedFrom", filter.getPurchasedFrom());
+        }
+        if (filter.getPurchasedTo() != null) {
+            sql.append(" and purchase_date <= :purchasedTo");
+            params.put("purchasedTo", filter.getPurchasedTo());
+        }
+        sql.append(" order by id");
+        if (limit != null) {
+            sql.append(" limit :limit");
+            params.put("limit", limit);
+        }
+        return client.sql(sql.toString())
+                .bindValues(params)
+                .map(ReactiveAutosRepository::toAutomobile)
+                .all();
+    }
+
+    public Mono<Automobile> findByVin(String vin) {
+        return client.sql("select " + COLUMNS + " from automobiles where vin = :vin")
+                .bind("vin", vin)
+                .map(ReactiveAutosRepository::toAutomobile)
+                .one();
+    }
+
+    public Mono<Boolean> existsByVin(String vin) {
+        return client.sql("select 1 from automobiles where vin = :vin")
+                .bind("vin", vin)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Automobile> insert(Automobile auto) {
+        return client.sql(nextIdSql)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    auto.setId(id);
+                    auto.setVersion(0);
+                    auto.setLastModified(Instant.now());
+                    DatabaseClient.GenericExecuteSpec insert = client.sql("insert into automobiles (" + COLUMNS + ") values "
+                                    + "(:id, :year, :make, :model, :color, :owner, :purchaseDate, :vin, :version, :lastModified)")
+                            .bind("id", id)
+                            .bind("year", auto.getYear())
+                            .bind("vin", auto.getVin())
+                            .bind("version", auto.getVersion())
+                            .bind("lastModified", auto.getLastModified().atOffset(ZoneOffset.UTC));
+                    insert = bindNullable(insert, "make", auto.getMake(), String.class);
+                    insert = bindNullable(insert, "model", auto.getModel(), String.class);
+                    insert = bindNullable(insert, "color", auto.getColor(), String.class);
+                    insert = bindNullable(insert, "owner", auto.getOwner(), String.class);
+                    insert = bindNullable(insert, "purchaseDate", auto.getPurchaseDate(), LocalDate.class);
+                    return insert.then().thenReturn(auto);
+                });
+    }
+
+    // A null version skips the optimistic check; otherwise id and version must both match.
+    public Mono<Long> updateColorAndOwner(String vin, String color, String owner, VersionTag version, Instant now) {
+        DatabaseClient.GenericExecuteSpec update = client.sql("update automobiles set color = :color, owner_name = :owner, "
+                        + "version = version + 1, last_modified = :now where vin = :vin"
+                        + (version == null ? "" : " and id = :id and version = :version"))
+                .bind("vin", vin)
+                .bind("now", now.atOffset(ZoneOffset.UTC));
+        update = bindNullable(update, "color", color, String.class);
+        update = bindNullable(update, "owner", owner, String.class);
+        if (version != null) {
+            update = update.bind("id", version.getId()).bind("version", version.getVersion());
+        }
+        return update.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteByVin(String vin, VersionTag version) {
+        DatabaseClient.GenericExecuteSpec delete = client.sql("delete from automobiles where vin = :vin"
+                        + (version == null ? "" : " and id = :id and version = :version"))
+                .bind("vin", vin);
+        if (version != null) {
+            delete = delete.bind("id", version.getId()).bind("version", version.getVersion());
+        }
+        return delete.fetch().rowsUpdated();
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+
+    // Same comparisons as AutosRepositoryCustomImpl, so the lower(column) indexes apply.
+    private static String matches(String column, MatchMode match) {
+        return match == MatchMode.EXACT
+                ? "lower(" + column + ") = :" + column
+                : "lower(" + column + ") like :" + column + " escape '" + AutosRepositoryCustomImpl.ESCAPE + "'";
+    }
+
+    private static String pattern(String value, MatchMode match) {
+        return switch (match) {
+            case EXACT -> value;
+            case PREFIX -> AutosRepositoryCustomImpl.escapeLike(value) + "%";
+            case CONTAINS -> "%" + AutosRepositoryCustomImpl.escapeLike(value) + "%";
+        };
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Automobile toAutomobile(Readable row) {
+        Automobile auto = new Automobile();
+        auto.setId(row.get("id", Long.class));
+        auto.setYear(row.get("model_year", Integer.class));
+        auto.setMake(row.get("make", String.class));
+        auto.setModel(row.get("model", String.class));
+        auto.setColor(row.get("color", String.class));
+        auto.setOwner(row.get("owner_name", String.class));
+        auto.setPurchaseDate(row.get("purchase_date", LocalDate.class));
+        auto.setVin(row.get("vin", String.class));
+        auto.setVersion(row.get("version", Long.class));
+        OffsetDateTime lastModified = row.get("last_modified", OffsetDateTime.class);
+        auto.setLastModified(lastModified == null ? null : lastModified.toInstant());
+        return auto;
+    }
+}
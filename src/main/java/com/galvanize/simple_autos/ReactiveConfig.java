@@ -0,0 +1,35 @@
+package com.galvanize.simple_autos;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// The R2DBC pool stays private to ReactiveAutosRepository: a ConnectionFactory bean would make
+// Spring Boot back off its JDBC DataSource, which JPA (write events and their listeners) still uses.
+// R2dbcAutoConfiguration is excluded in application.properties for the same reason.
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    public ReactiveAutosRepository reactiveAutosRepository(AutosProperties properties) {
+        AutosProperties.Reactive config = properties.getReactive();
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(config.getUrl()).mutate();
+        if (config.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, config.getUsername());
+        }
+        if (config.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, config.getPassword());
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("autos-r2dbc")
+                .initialSize(config.getInitialSize())
+                .maxSize(config.getMaxSize())
+                .build());
+        return new ReactiveAutosRepository(pool);
+    }
+}
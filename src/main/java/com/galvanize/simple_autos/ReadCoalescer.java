@@ -0,0 +1,152 @@
+package com.galvanize.simple_autos;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing in front of the hot reads of AutosService. Identical concurrent reads share
+ * one in-flight call, and its result is reused for autos.coalesce.ttl, so an expiring entry under
+ * load triggers one reload rather than a stampede. Sits outside the service's transactions so
+ * waiting callers don't hold a connection. Committed changes evict the affected entries. Filtered
+ * lists are additionally kept in the longer-lived AutosListCache.
+ */
+@Component
+public class ReadCoalescer implements MeterBinder {
+
+    AutosService autosService;
+    AutosListCache listCache;
+
+    private final Coalesced<String, Automobile> autos;
+    private final Coalesced<List<Object>, AutosList> lists;
+
+    public ReadCoalescer(AutosService autosService, AutosListCache listCache, AutosProperties properties) {
+        this.autosService = autosService;
+        this.listCache = listCache;
+        this.autos = new Coalesced<>("auto", properties.getCoalesce());
+        this.lists = new Coalesced<>("list", properties.getCoalesce());
+    }
+
+    public Automobile getAuto(String vin) {
+        return autos.get(vin, () -> autosService.getAuto(vin));
+    }
+
+    public AutosList getAutos(Long after, int limit) {
+        return lists.get(Arrays.asList(null, after, limit), () -> autosService.getAutos(after, limit));
+    }
+
+    public AutosList getAutos(AutosFilter filter, Long after, int limit) {
+        return lists.get(Arrays.asList(filter, after, limit),
+                () -> listCache.get(filter, after, limit, () -> autosService.getAutos(filter, after, limit)));
+    }
+
+    // Any change can move rows in or out of a list page, so the short-lived lists are dropped
+    // wholesale; the list cache behind them is invalidated first so they can't be refilled from it.
+    // Rows of a bulk insert were already covered by onAutosAdded.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAutoChanged(AutoChangedEvent event) {
+        if (!event.isBatched()) {
+            listCache.onAutoChanged(event);
+            lists.evictAll();
+        }
+        autos.evict(event.getVin());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAutosAdded(AutosAddedEvent event) {
+        listCache.onAutosAdded(event);
+        lists.evictAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        autos.bindTo(registry);
+        lists.bindTo(registry);
+    }
+
+    private static class Coalesced<K, V> {
+        final String read;
+        final SingleFlight<K, V> flight = new SingleFlight<>();
+        final Cache<K, V> recent;
+        final LongAdder cached = new LongAdder();
+        final LongAdder loaded = new LongAdder();
+        // Bumped before every eviction; a load that overlapped one may hold the old value.
+        final AtomicLong evictions = new AtomicLong();
+
+        Coalesced(String read, AutosProperties.Coalesce config) {
+            this.read = read;
+            Duration ttl = config.getTtl();
+            this.recent = ttl.isZero() || ttl.isNegative() ? null : Caffeine.newBuilder()
+                    .expireAfterWrite(ttl)
+                    .maximumSize(config.getMaxEntries())
+                    .build();
+        }
+
+        V get(K key, Supplier<V> load) {
+            V value = recent == null ? null : recent.getIfPresent(key);
+            if (value != null) {
+                cached.increment();
+                return value;
+            }
+            return flight.run(key, () -> {
+                // Another leader may have just finished between our cache miss and getting here.
+                V current = recent == null ? null : recent.getIfPresent(key);
+                if (current != null) {
+                    cached.increment();
+                    return current;
+                }
+                loaded.increment();
+                long evictionsBefore = evictions.get();
+                V result = load.get();
+                if (result != null && recent != null && evictions.get() == evictionsBefore) {
+                    recent.put(key, result);
+                    // An eviction between the check and the put may have run before the put.
+                    if (evictions.get() != evictionsBefore) {
+                        recent.invalidate(key);
+                    }
+                }
+                return result;
+            });
+        }
+
+        void evict(K key) {
+            if (recent != null && key != null) {
+                evictions.incrementAndGet();
+                recent.invalidate(key);
+            }
+        }
+
+        void evictAll() {
+            if (recent != null) {
+                evictions.incrementAndGet();
+                recent.invalidateAll();
+            }
+        }
+
+        void bindTo(MeterRegistry registry) {
+            FunctionCounter.builder("autos.reads", flight, SingleFlight::collapsed)
+                    .description("Reads answered by another caller's in-flight call")
+                    .tags("read", read, "outcome", "collapsed")
+                    .register(registry);
+            FunctionCounter.builder("autos.reads", cached, LongAdder::sum)
+                    .description("Reads answered from the short-lived coalescing cache")
+                    .tags("read", read, "outcome", "cached")
+                    .register(registry);
+            FunctionCounter.builder("autos.reads", loaded, LongAdder::sum)
+                    .description("Reads that called AutosService")
+                    .tags("read", read, "outcome", "loaded")
+                    .register(registry);
+        }
+    }
+}
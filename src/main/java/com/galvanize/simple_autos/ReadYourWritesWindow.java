@@ -0,0 +1,27 @@
+package com.galvanize.simple_autos;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+// VINs written through this instance recently enough that the replica may not have caught up yet.
+@Component
+public class ReadYourWritesWindow {
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWritesWindow(AutosProperties properties) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReplica().getReadYourWritesWindow())
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void markWritten(String vin) {
+        recentWrites.put(vin, Boolean.TRUE);
+    }
+
+    public boolean isRecentlyWritten(String vin) {
+        return recentWrites.getIfPresent(vin) != null;
+    }
+}
@@ -0,0 +1,178 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint database work and payload size, tagged like http.server.requests (method + uri pattern).
+ * Latency itself comes from http.server.requests. Async responses (the NDJSON stream) are only
+ * counted up to the point the request thread hands off.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter implements Ordered {
+
+    // Early in the chain, so filters after it (RateLimitFilter) see the request's query statistics.
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private final MeterRegistry registry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RequestMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryListener.QueryStats stats = RequestQueryListener.begin();
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            chain.doFilter(request, countingResponse);
+        } finally {
+            countingResponse.flushWriter();
+            RequestQueryListener.end();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (uri != null) {
+                record(request.getMethod(), uri.toString(), stats, countingResponse.bytes);
+            }
+        }
+    }
+
+    private void record(String method, String uri, RequestQueryListener.QueryStats stats, long bytes) {
+        Meters meters = this.meters.computeIfAbsent(method + " " + uri, key -> new Meters(registry, method, uri));
+        meters.queries.record(stats.count);
+        meters.dbTime.record(stats.nanos, TimeUnit.NANOSECONDS);
+        meters.responseSize.record(bytes);
+    }
+
+    // Registered once per (method, uri pattern); uri patterns are bounded by the handler mappings.
+    private static class Meters {
+        final DistributionSummary queries;
+        final Timer dbTime;
+        final DistributionSummary responseSize;
+
+        Meters(MeterRegistry registry, String method, String uri) {
+            this.queries = DistributionSummary.builder("autos.db.queries")
+                    .description("JDBC statements executed per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+            this.dbTime = Timer.builder("autos.db.time")
+                    .description("Time spent executing JDBC statements per request")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+            this.responseSize = DistributionSummary.builder("autos.response.size")
+                    .description("Response body size")
+                    .baseUnit("bytes")
+                    .tags("method", method, "uri", uri)
+                    .register(registry);
+        }
+    }
+
+    // Bodies written through getWriter() are encoded onto the counting stream, so both paths count bytes.
+    private static class CountingResponse extends HttpServletResponseWrapper {
+        private long bytes;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+                outputStream = new CountingOutputStream(super.getOutputStream());
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        private class CountingOutputStream extends ServletOutputStream {
+            private final ServletOutputStream delegate;
+
+            CountingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                bytes += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
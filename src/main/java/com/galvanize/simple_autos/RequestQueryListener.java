@@ -0,0 +1,64 @@
+package com.galvanize.simple_autos;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate creates one of these per session (hibernate.session.events.auto). JDBC executions are
+ * added to the statistics of the request running on the current thread, if RequestMetricsFilter
+ * started one; sessions outside a request cost two nanoTime calls per statement.
+ */
+public class RequestQueryListener extends BaseSessionEventListener {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private long statementStart;
+    private long batchStart;
+
+    static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    // Statistics of the request on this thread so far, or null outside RequestMetricsFilter.
+    static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.count++;
+            stats.nanos += System.nanoTime() - start;
+        }
+    }
+
+    static class QueryStats {
+        int count;
+        long nanos;
+    }
+}
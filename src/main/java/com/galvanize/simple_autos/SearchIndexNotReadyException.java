@@ -0,0 +1,4 @@
+package com.galvanize.simple_autos;
+
+public class SearchIndexNotReadyException extends RuntimeException {
+}
@@ -2,8 +2,10 @@ package com.galvanize.simple_autos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(AutosProperties.class)
 public class SimpleAutosApplication {
 
 	public static void main(String[] args) {
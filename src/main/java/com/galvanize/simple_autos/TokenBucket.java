@@ -0,0 +1,36 @@
+package com.galvanize.simple_autos;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (the generic cell rate algorithm): the time at which the
+ * bucket would be full again. Taking a token pushes it one interval forward; the bucket is empty
+ * once it is more than burst intervals ahead of now. One CAS per request, no lock.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int burst, double perSecond, long now) {
+        this.intervalNanos = (long) (1_000_000_000L / perSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // Takes one token; returns 0 on success, otherwise the nanoseconds until one is available.
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.galvanize.simple_autos;
+
+import java.util.Objects;
+
+// The id and version behind an item ETag ("<id>-<version>"). The version restarts at 0 when a VIN is
+// deleted and created again, so the id is what tells the new car from the one the client saw.
+public class VersionTag {
+    private final long id;
+    private final long version;
+
+    public VersionTag(long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public static VersionTag of(Automobile auto) {
+        return new VersionTag(auto.getId(), auto.getVersion());
+    }
+
+    // Parses the opaque part of an ETag (quotes and W/ already removed); null if it isn't one of ours.
+    static VersionTag parse(String tag) {
+        int dash = tag.indexOf('-');
+        if (dash <= 0) {
+            return null;
+        }
+        try {
+            return new VersionTag(Long.parseLong(tag.substring(0, dash)), Long.parseLong(tag.substring(dash + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VersionTag that = (VersionTag) o;
+        return id == that.id && version == that.version;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, version);
+    }
+
+    @Override
+    public String toString() {
+        return id + "-" + version;
+    }
+}
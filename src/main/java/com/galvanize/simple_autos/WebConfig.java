@@ -0,0 +1,26 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Binary Jackson formats for service-to-service callers, built from Boot's Jackson settings. Boot's
+// HttpMessageConverters puts converter beans in place of the default converter of the same type, so
+// these replace Spring MVC's plain Smile/CBOR converters; JSON stays first and remains the default.
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(jacksonBuilder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(jacksonBuilder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,13 @@
+-- Brings a schema created by ddl-auto=update before Flyway was introduced up to V1. Such schemas
+-- are baselined at V0 (spring.flyway.baseline-version), so V1 only adds the sequence and this script
+-- does the rest. Every statement is a no-op on a schema created by V1.
+create sequence if not exists automobiles_seq start with 1 increment by 50;
+alter table automobiles add column if not exists version bigint default 0 not null;
+alter table automobiles add column if not exists last_modified timestamp(6) with time zone;
+
+-- Rows saved without a VIN can't be addressed through the API; give them a unique placeholder.
+update automobiles set vin = 'LEGACY-' || id where vin is null;
+alter table automobiles alter column vin set not null;
+
+-- PostgreSQL does this in V2 (setval); H2 has no V2.
+alter sequence automobiles_seq restart with (select coalesce(max(id), 0) + 50 from automobiles);
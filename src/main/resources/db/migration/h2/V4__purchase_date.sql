@@ -0,0 +1,3 @@
+-- purchaseDate is a LocalDate; back GET /api/autos?purchasedFrom=&purchasedTo= with a range index.
+alter table automobiles alter column purchase_date set data type date;
+create index if not exists ix_automobiles_purchase_date on automobiles (purchase_date, id);
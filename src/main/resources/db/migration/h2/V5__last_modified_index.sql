@@ -0,0 +1,2 @@
+-- The search index catches up on rows other instances wrote by polling last_modified.
+create index if not exists ix_automobiles_last_modified on automobiles (last_modified);
@@ -0,0 +1,19 @@
+-- The schema as of the Flyway switch. Databases created earlier with ddl-auto=update are baselined
+-- at V0, so this still runs there; the if-not-exists clauses skip what they already have and
+-- V1_1 upgrades the rest.
+create sequence if not exists automobiles_seq start with 1 increment by 50;
+
+create table if not exists automobiles (
+    id bigint not null,
+    model_year integer not null,
+    make varchar(255),
+    model varchar(255),
+    color varchar(255),
+    owner_name varchar(255),
+    purchase_date timestamp(6),
+    vin varchar(255) not null,
+    version bigint default 0 not null,
+    last_modified timestamp(6) with time zone,
+    primary key (id),
+    constraint uk_automobiles_vin unique (vin)
+);
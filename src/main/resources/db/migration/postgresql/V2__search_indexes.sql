@@ -0,0 +1,7 @@
+-- Functional indexes backing the EXACT and PREFIX search modes of GET /api/autos.
+-- text_pattern_ops lets lower(col) LIKE 'abc%' use the index regardless of collation.
+create index if not exists ix_automobiles_lower_color on automobiles (lower(color) text_pattern_ops, id);
+create index if not exists ix_automobiles_lower_make on automobiles (lower(make) text_pattern_ops, id);
+
+-- Move the id sequence past existing rows (the pooled optimizer hands out ids below the value it reads).
+select setval('automobiles_seq', (select coalesce(max(id), 0) from automobiles) + 50);
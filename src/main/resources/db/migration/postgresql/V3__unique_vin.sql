@@ -0,0 +1,26 @@
+-- Databases baselined from ddl-auto=update may hold duplicate VINs, in which case the unique
+-- constraint was never created. The oldest row per VIN is kept; the others are copied to
+-- automobiles_vin_duplicates for review before they are removed, and the VINs are logged.
+create table if not exists automobiles_vin_duplicates (like automobiles);
+
+insert into automobiles_vin_duplicates
+select a.* from automobiles a where exists (select 1 from automobiles b where a.vin = b.vin and a.id > b.id);
+
+do $$
+declare
+    vins text;
+begin
+    select string_agg(distinct vin, ', ') into vins from automobiles_vin_duplicates;
+    if vins is not null then
+        raise warning 'Duplicate VINs moved to automobiles_vin_duplicates: %', vins;
+    end if;
+end $$;
+
+delete from automobiles a using automobiles b where a.vin = b.vin and a.id > b.id;
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'uk_automobiles_vin') then
+        alter table automobiles add constraint uk_automobiles_vin unique (vin);
+    end if;
+end $$;
@@ -0,0 +1,5 @@
+-- purchaseDate is a LocalDate; back GET /api/autos?purchasedFrom=&purchasedTo= with a range index.
+-- It serves the range predicate only: pages are ordered by id alone, so the matching rows are
+-- sorted by id (or found by walking the primary key and filtering) rather than read in index order.
+alter table automobiles alter column purchase_date type date using purchase_date::date;
+create index if not exists ix_automobiles_purchase_date on automobiles (purchase_date, id);
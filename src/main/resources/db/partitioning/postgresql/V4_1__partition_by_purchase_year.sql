@@ -0,0 +1,102 @@
+-- Opt-in (profile "partitioned"): range-partition automobiles by purchase year so purchase-date
+-- range scans prune to the matching years and retention is a detach/drop of a yearly partition.
+--
+-- Postgres only enforces uniqueness on a partitioned table when the key includes the partition
+-- column, and purchase_date is nullable. The primary key and uk_automobiles_vin therefore become
+-- per-partition constraints (ids still come from automobiles_seq), and global VIN uniqueness moves
+-- to automobile_vins, which a trigger keeps in step with automobiles: inserting a known VIN fails
+-- with a unique violation, as it does on the unpartitioned table.
+--
+-- Rows without a purchase date land in automobiles_undated, and so do rows dated after the last
+-- yearly partition until create_automobiles_partition moves them out. The app creates the current
+-- and next year's partitions on startup and daily (AutosPartitionMaintenance).
+
+alter table automobiles rename to automobiles_unpartitioned;
+alter table automobiles_unpartitioned rename constraint uk_automobiles_vin to uk_automobiles_unpartitioned_vin;
+
+create table automobiles (like automobiles_unpartitioned including defaults) partition by range (purchase_date);
+
+create table automobile_vins (
+    vin varchar(255) primary key
+);
+
+create or replace function automobiles_track_vin() returns trigger as $$
+begin
+    if tg_op in ('UPDATE', 'DELETE') then
+        delete from automobile_vins where vin = old.vin;
+    end if;
+    if tg_op in ('INSERT', 'UPDATE') then
+        insert into automobile_vins (vin) values (new.vin);
+    end if;
+    return null;
+end $$ language plpgsql;
+
+-- Row triggers on the parent are cloned to every partition, including ones created later.
+create trigger automobiles_track_vin_insert after insert on automobiles
+    for each row execute function automobiles_track_vin();
+create trigger automobiles_track_vin_delete after delete on automobiles
+    for each row execute function automobiles_track_vin();
+create trigger automobiles_track_vin_update after update of vin on automobiles
+    for each row when (old.vin is distinct from new.vin) execute function automobiles_track_vin();
+
+-- Creates the partition for one purchase year with its own primary key and VIN constraint; a no-op
+-- if it exists. Rows for that year already parked in the default partition are moved into it
+-- (the default partition is detached meanwhile, which briefly locks automobiles). Callers are
+-- serialized on a transaction-scoped advisory lock, so instances starting together don't race
+-- on the existence check or the detach.
+create or replace function create_automobiles_partition(purchase_year integer) returns void as $$
+declare
+    partition_name text := 'automobiles_y' || purchase_year;
+    from_date date := make_date(purchase_year, 1, 1);
+    to_date date := make_date(purchase_year + 1, 1, 1);
+    has_default boolean;
+begin
+    perform pg_advisory_xact_lock(hashtext('create_automobiles_partition'));
+    has_default := to_regclass('automobiles_undated') is not null;
+    if to_regclass(partition_name) is not null then
+        return;
+    end if;
+    if has_default then
+        alter table automobiles detach partition automobiles_undated;
+    end if;
+    execute format('create table %I partition of automobiles for values from (%L) to (%L)',
+                   partition_name, from_date, to_date);
+    execute format('alter table %I add primary key (id)', partition_name);
+    execute format('alter table %I add constraint %I unique (vin)', partition_name, 'uk_' || partition_name || '_vin');
+    if has_default then
+        create temporary table moved_automobiles as
+            select * from automobiles_undated where purchase_date >= from_date and purchase_date < to_date;
+        delete from automobiles_undated where purchase_date >= from_date and purchase_date < to_date;
+        -- The detached table may no longer carry the cloned trigger, so release the VINs explicitly.
+        delete from automobile_vins where vin in (select vin from moved_automobiles);
+        insert into automobiles select * from moved_automobiles;
+        drop table moved_automobiles;
+        alter table automobiles attach partition automobiles_undated default;
+    end if;
+end $$ language plpgsql;
+
+do $$
+declare
+    first_year integer := coalesce((select extract(year from min(purchase_date))::integer from automobiles_unpartitioned),
+                                   extract(year from current_date)::integer);
+begin
+    for purchase_year in first_year .. extract(year from current_date)::integer + 1 loop
+        perform create_automobiles_partition(purchase_year);
+    end loop;
+end $$;
+
+create table automobiles_undated partition of automobiles default;
+alter table automobiles_undated add primary key (id);
+alter table automobiles_undated add constraint uk_automobiles_undated_vin unique (vin);
+
+-- Declared on the parent, so every partition (including ones created later) gets them.
+create index ix_automobiles_purchase_date_p on automobiles (purchase_date, id);
+create index ix_automobiles_lower_color_p on automobiles (lower(color) text_pattern_ops, id);
+create index ix_automobiles_lower_make_p on automobiles (lower(make) text_pattern_ops, id);
+
+insert into automobiles select * from automobiles_unpartitioned;
+drop table automobiles_unpartitioned;
+
+alter index ix_automobiles_purchase_date_p rename to ix_automobiles_purchase_date;
+alter index ix_automobiles_lower_color_p rename to ix_automobiles_lower_color;
+alter index ix_automobiles_lower_make_p rename to ix_automobiles_lower_make;
@@ -0,0 +1,78 @@
+package com.galvanize.simple_autos;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AdaptivePoolSizerTest {
+
+    @Mock
+    HikariDataSource pool;
+
+    @Mock
+    HikariPoolMXBean poolStats;
+
+    @Mock
+    HikariConfigMXBean poolConfig;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Timer acquire;
+    AdaptivePoolSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        when(pool.getPoolName()).thenReturn("autos");
+        when(pool.getHikariPoolMXBean()).thenReturn(poolStats);
+        when(pool.getHikariConfigMXBean()).thenReturn(poolConfig);
+        when(poolConfig.getMaximumPoolSize()).thenReturn(20);
+        when(poolConfig.getMinimumIdle()).thenReturn(10);
+        acquire = Timer.builder("hikaricp.connections.acquire").tag("pool", "autos").register(registry);
+        sizer = new AdaptivePoolSizer(pool, registry, new AutosProperties());
+    }
+
+    @Test
+    void adjust_slowAcquire_grows() {
+        acquire.record(Duration.ofMillis(50));
+        sizer.adjust();
+        verify(poolConfig).setMaximumPoolSize(22);
+    }
+
+    @Test
+    void adjust_waitingThreads_grows() {
+        when(poolStats.getThreadsAwaitingConnection()).thenReturn(3);
+        sizer.adjust();
+        verify(poolConfig).setMaximumPoolSize(22);
+    }
+
+    @Test
+    void adjust_fastAcquireAndIdle_shrinks() {
+        acquire.record(Duration.ofNanos(100_000));
+        when(poolStats.getActiveConnections()).thenReturn(2);
+        sizer.adjust();
+        verify(poolConfig).setMaximumPoolSize(19);
+    }
+
+    @Test
+    void adjust_atMaxSize_staysPut() {
+        when(poolConfig.getMaximumPoolSize()).thenReturn(50);
+        when(poolStats.getThreadsAwaitingConnection()).thenReturn(3);
+        sizer.adjust();
+        verify(poolConfig, never()).setMaximumPoolSize(anyInt());
+    }
+}
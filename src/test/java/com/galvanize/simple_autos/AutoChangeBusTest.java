@@ -0,0 +1,153 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutoChangeBusTest {
+
+    // Records the text of each event instead of writing to a response.
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String s) {
+                    text.append(s);
+                }
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String lastId() {
+            String last = events.get(events.size() - 1);
+            int start = last.indexOf("id:") + 3;
+            return last.substring(start, last.indexOf('\n', start));
+        }
+    }
+
+    private AutoChangeBus bus(TaskExecutor executor, int subscriberQueue, AutoChangeBus.Overflow overflow) {
+        AutosProperties properties = new AutosProperties();
+        properties.getEvents().setBufferSize(4);
+        properties.getEvents().setSubscriberQueue(subscriberQueue);
+        properties.getEvents().setOverflow(overflow);
+        return new AutoChangeBus(executor, properties, new SimpleMeterRegistry());
+    }
+
+    private static AutoChangedEvent created(String vin) {
+        return new AutoChangedEvent(AutoChangedEvent.Type.CREATED, vin, new Automobile(1967, "Mustang", "Ford", vin));
+    }
+
+    @Test
+    void onAutoChanged_deliversToSubscriber() {
+        AutoChangeBus bus = bus(new SyncTaskExecutor(), 16, AutoChangeBus.Overflow.DISCONNECT);
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(null, emitter);
+
+        bus.onAutoChanged(created("AA88CC"));
+        bus.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, "AA88CC", null));
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(0)).contains("event:created");
+        assertThat(emitter.events.get(1)).contains("event:deleted");
+    }
+
+    @Test
+    void subscribe_lastEventId_replaysMissedChanges() {
+        AutoChangeBus bus = bus(new SyncTaskExecutor(), 16, AutoChangeBus.Overflow.DISCONNECT);
+        RecordingEmitter first = new RecordingEmitter();
+        bus.subscribe(null, first);
+        bus.onAutoChanged(created("AA88CC"));
+        String lastSeen = first.lastId();
+        bus.onAutoChanged(created("AA88DD"));
+        bus.onAutoChanged(created("AA88EE"));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        bus.subscribe(lastSeen, resumed);
+
+        assertThat(resumed.events).hasSize(2);
+        assertThat(resumed.lastId()).isEqualTo(first.lastId());
+    }
+
+    @Test
+    void subscribe_expiredLastEventId_sendsReset() {
+        AutoChangeBus bus = bus(new SyncTaskExecutor(), 16, AutoChangeBus.Overflow.DISCONNECT);
+        RecordingEmitter first = new RecordingEmitter();
+        bus.subscribe(null, first);
+        bus.onAutoChanged(created("AA0"));
+        String lastSeen = first.lastId();
+        for (int i = 1; i <= 5; i++) {
+            bus.onAutoChanged(created("AA" + i));
+        }
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        bus.subscribe(lastSeen, resumed);
+
+        assertThat(resumed.events).hasSize(1);
+        assertThat(resumed.events.get(0)).contains("event:reset");
+    }
+
+    @Test
+    void slowSubscriber_dropOldest_keepsNewest() {
+        List<Runnable> pending = new ArrayList<>();
+        AutoChangeBus bus = bus(pending::add, 2, AutoChangeBus.Overflow.DROP_OLDEST);
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(null, emitter);
+        for (int i = 0; i < 3; i++) {
+            bus.onAutoChanged(created("AA" + i));
+        }
+
+        pending.forEach(Runnable::run);
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.completed).isFalse();
+    }
+
+    @Test
+    void slowSubscriber_disconnect_completesEmitter() {
+        List<Runnable> pending = new ArrayList<>();
+        AutoChangeBus bus = bus(pending::add, 2, AutoChangeBus.Overflow.DISCONNECT);
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(null, emitter);
+        for (int i = 0; i < 3; i++) {
+            bus.onAutoChanged(created("AA" + i));
+        }
+
+        pending.forEach(Runnable::run);
+
+        assertThat(emitter.events).isEmpty();
+        assertThat(emitter.completed).isTrue();
+        assertThat(bus.subscriberCount()).isZero();
+    }
+
+    @Test
+    void senderPoolSaturated_disconnectsSubscriber() {
+        AutoChangeBus bus = bus(task -> {
+            throw new TaskRejectedException("sender pool full");
+        }, 16, AutoChangeBus.Overflow.DROP_OLDEST);
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(null, emitter);
+
+        bus.onAutoChanged(created("AA88CC"));
+
+        assertThat(emitter.completed).isTrue();
+        assertThat(bus.subscriberCount()).isZero();
+    }
+}
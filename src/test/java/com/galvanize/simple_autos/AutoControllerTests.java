@@ -1,25 +1,36 @@
 package com.galvanize.simple_autos;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AutosController.class)
+@Import({ReadCoalescer.class, AutosListCache.class, WebConfig.class})
+@TestPropertySource(properties = {"autos.coalesce.ttl=0", "autos.list-cache.enabled=false"})
 public class AutoControllerTests {
 
     @Autowired
@@ -28,6 +39,12 @@ public class AutoControllerTests {
     @MockBean
     AutosService autosService;
 
+    @MockBean
+    OwnerTransferQueue ownerTransfers;
+
+    @MockBean
+    IdempotencyKeys idempotencyKeys;
+
     ObjectMapper mapper = new ObjectMapper();
 
     //GET: /api/autos
@@ -38,7 +55,7 @@ public class AutoControllerTests {
         for (int i = 0; i < 5 ; i++) {
             automobiles.add(new Automobile(1900+i, "Ford", "Mustang","AA88"+i));
         }
-        when(autosService.getAutos()).thenReturn(new AutosList(automobiles));
+        when(autosService.getAutos(isNull(), anyInt())).thenReturn(new AutosList(automobiles));
         mockMvc.perform(get("/api/autos"))
                 .andDo(print())
                 .andExpect(status().isOk())
@@ -50,12 +67,90 @@ public class AutoControllerTests {
     @Test
     void getAutos_noParams_none_returnsNoContent() throws Exception {
         List<Automobile> automobiles = new ArrayList<>();
-        when(autosService.getAutos()).thenReturn(new AutosList(automobiles));
+        when(autosService.getAutos(isNull(), anyInt())).thenReturn(new AutosList(automobiles));
         mockMvc.perform(get("/api/autos"))
                 .andDo(print())
                 .andExpect(status().isNoContent());
     }
 
+    // Accept: application/x-jackson-smile returns the list as Smile
+    @Test
+    void getAutos_acceptSmile_returnsSmile() throws Exception {
+        List<Automobile> automobiles = new ArrayList<>();
+        automobiles.add(new Automobile(1967, "Mustang", "Ford","AA88CC"));
+        when(autosService.getAutos(isNull(), anyInt())).thenReturn(new AutosList(automobiles));
+        mockMvc.perform(get("/api/autos").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+    }
+
+    // POST accepts a CBOR body
+    @Test
+    void addAuto_cbor_returnAuto() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(autosService.addAuto(any(Automobile.class))).thenReturn(automobile);
+        mockMvc.perform(post("/api/autos").contentType("application/cbor")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(new CBORMapper().writeValueAsBytes(automobile)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("make").value("Ford"));
+    }
+
+    // /api/autos?after=10&limit=2 returns the next page and its cursor
+    @Test
+    void getAutos_cursor_returnsPageWithNext() throws Exception {
+        List<Automobile> automobiles = new ArrayList<>();
+        for (int i = 0; i < 2 ; i++) {
+            automobiles.add(new Automobile(1900+i, "Ford", "Mustang","AA88"+i));
+        }
+        when(autosService.getAutos(10L, 2)).thenReturn(new AutosList(automobiles, 12L));
+        mockMvc.perform(get("/api/autos?after=10&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.automobiles", hasSize(2)))
+                .andExpect(jsonPath("$.next").value(12));
+    }
+
+    // /api/autos?fields=vin,make returns only the requested fields
+    @Test
+    void getAutos_fields_returnsProjection() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("vin", "AA88CC");
+        row.put("make", "Ford");
+        when(autosService.getAutoFields(any(AutosFilter.class), eq(List.of("vin", "make")), isNull(), anyInt()))
+                .thenReturn(new AutosProjection(List.of(row), null));
+        mockMvc.perform(get("/api/autos?fields=vin,make"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.automobiles[0].vin").value("AA88CC"))
+                .andExpect(jsonPath("$.automobiles[0].model").doesNotExist());
+    }
+
+    // unknown fields are rejected with 400
+    @Test
+    void getAutos_unknownField_returnsBadRequest() throws Exception {
+        when(autosService.getAutoFields(any(AutosFilter.class), anyList(), isNull(), anyInt()))
+                .thenThrow(InvalidAutoException.class);
+        mockMvc.perform(get("/api/autos?fields=vin,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // /api/autos?stream=true&make=Ford streams the matching autos as NDJSON
+    @Test
+    void streamAutos_returnsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Automobile> action = invocation.getArgument(1);
+            action.accept(new Automobile(1967, "Mustang", "Ford", "AA88CC"));
+            action.accept(new Automobile(1968, "Mustang", "Ford", "AA88DD"));
+            return null;
+        }).when(autosService).streamAutos(eq(new AutosFilter(null, "Ford", MatchMode.PREFIX)), any());
+        MvcResult result = mockMvc.perform(get("/api/autos?stream=true&make=Ford").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"vin\":\"AA88DD\"")));
+    }
+
     // /api/autos?make=Ford returns ford cars
     @Test
     void getAutos_searchParams_makeExists_returnsAutoslists() throws Exception {
@@ -63,7 +158,7 @@ public class AutoControllerTests {
         for (int i = 0; i < 5 ; i++) {
             automobiles.add(new Automobile(1900+i, "Ford", "Mustang","AA88"+i));
         }
-        when(autosService.getAutos(isNull(),anyString())).thenReturn(new AutosList(automobiles));
+        when(autosService.getAutos(eq(new AutosFilter(null, "Ford", MatchMode.PREFIX)), isNull(), anyInt())).thenReturn(new AutosList(automobiles));
         mockMvc.perform(get("/api/autos?make=Ford"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.automobiles", hasSize(5)));
@@ -76,7 +171,7 @@ public class AutoControllerTests {
         for (int i = 0; i < 5 ; i++) {
             automobiles.add(new Automobile(1900+i, "Ford", "Mustang","AA88"+i));
         }
-        when(autosService.getAutos(anyString(),isNull())).thenReturn(new AutosList(automobiles));
+        when(autosService.getAutos(eq(new AutosFilter("RED", null, MatchMode.PREFIX)), isNull(), anyInt())).thenReturn(new AutosList(automobiles));
         mockMvc.perform(get("/api/autos?color=RED"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.automobiles", hasSize(5)));
@@ -89,12 +184,46 @@ public class AutoControllerTests {
         for (int i = 0; i < 5 ; i++) {
             automobiles.add(new Automobile(1900+i, "Ford", "Mustang","AA88"+i));
         }
-        when(autosService.getAutos(anyString(), anyString())).thenReturn(new AutosList(automobiles));
+        when(autosService.getAutos(any(AutosFilter.class), isNull(), anyInt())).thenReturn(new AutosList(automobiles));
         mockMvc.perform(get("/api/autos?color=RED&make=Ford"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.automobiles", hasSize(5)));
     }
 
+    // /api/autos?make=ford&match=EXACT searches with the requested mode
+    @Test
+    void getAutos_searchParams_exactMatch_returnsAutoslists() throws Exception {
+        List<Automobile> automobiles = new ArrayList<>();
+        automobiles.add(new Automobile(1967, "Mustang", "Ford","AA88CC"));
+        when(autosService.getAutos(eq(new AutosFilter(null, "ford", MatchMode.EXACT)), isNull(), anyInt()))
+                .thenReturn(new AutosList(automobiles));
+        mockMvc.perform(get("/api/autos?make=ford&match=EXACT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.automobiles", hasSize(1)));
+    }
+
+    // /api/autos?purchasedFrom=2020-01-01&purchasedTo=2020-12-31 filters by purchase date
+    @Test
+    void getAutos_purchaseRange_returnsAutoslists() throws Exception {
+        Automobile auto = new Automobile(2019, "Mustang", "Ford", "AA88CC");
+        auto.setPurchaseDate(LocalDate.of(2020, 3, 15));
+        AutosFilter filter = new AutosFilter(null, null, null, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        when(autosService.getAutos(eq(filter), isNull(), anyInt())).thenReturn(new AutosList(List.of(auto)));
+        mockMvc.perform(get("/api/autos?purchasedFrom=2020-01-01&purchasedTo=2020-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.automobiles[0].purchaseDate").value("03/15/2020"));
+        mockMvc.perform(get("/api/autos?purchasedFrom=03/15/2020"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // returns 204 when the search finds nothing
+    @Test
+    void getAutos_searchParams_none_returnsNoContent() throws Exception {
+        when(autosService.getAutos(any(AutosFilter.class), isNull(), anyInt())).thenReturn(new AutosList());
+        mockMvc.perform(get("/api/autos?color=PLAID"))
+                .andExpect(status().isNoContent());
+    }
+
 
     //POST: /api/autos
     // returns created automobiles
@@ -109,6 +238,64 @@ public class AutoControllerTests {
                 .andExpect(jsonPath("make").value("Ford"));
     }
 
+    // retry with a known Idempotency-Key returns the stored automobile without inserting
+    @Test
+    void addAuto_knownIdempotencyKey_returnsStoredAuto() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(idempotencyKeys.claim("key-1", "AA88CC")).thenReturn("AA88CC");
+        when(autosService.getAuto("AA88CC")).thenReturn(automobile);
+        mockMvc.perform(post("/api/autos").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "key-1")
+                        .content(mapper.writeValueAsString(automobile)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("vin").value("AA88CC"));
+        verify(autosService, never()).addAuto(any(Automobile.class));
+    }
+
+    // retry with a known Idempotency-Key for a different car under that VIN returns 409, like the first attempt
+    @Test
+    void addAuto_knownIdempotencyKeyDifferentCar_returns409() throws Exception {
+        Automobile stored = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        Automobile requested = new Automobile(2020, "Quatro", "Audi","AA88CC");
+        when(idempotencyKeys.claim("key-1", "AA88CC")).thenReturn("AA88CC");
+        when(autosService.getAuto("AA88CC")).thenReturn(stored);
+        mockMvc.perform(post("/api/autos").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "key-1")
+                        .content(mapper.writeValueAsString(requested)))
+                .andExpect(status().isConflict());
+    }
+
+    // a body without a VIN is a 400 with or without an Idempotency-Key, and claims no key
+    @Test
+    void addAuto_idempotencyKeyWithoutVin_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/autos").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "key-1")
+                        .content("{\"make\":\"Ford\"}"))
+                .andExpect(status().isBadRequest());
+        verify(idempotencyKeys, never()).claim(anyString(), any());
+    }
+
+    // Idempotency-Key reused for a different VIN returns 422
+    @Test
+    void addAuto_reusedIdempotencyKey_returns422() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(idempotencyKeys.claim("key-1", "AA88CC")).thenReturn("ZZ99XX");
+        mockMvc.perform(post("/api/autos").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "key-1")
+                        .content(mapper.writeValueAsString(automobile)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    // a different car under a stored VIN returns 409
+    @Test
+    void addAuto_existingVinDifferentCar_returns409() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(autosService.addAuto(any(Automobile.class))).thenThrow(AutoAlreadyExistsException.class);
+        mockMvc.perform(post("/api/autos").contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(automobile)))
+                .andExpect(status().isConflict());
+    }
+
     // returns error messages due to bad request (400)
     @Test
     void addAuto_badRequ_returns400() throws Exception {
@@ -130,7 +317,45 @@ public class AutoControllerTests {
         mockMvc.perform(get("/api/autos/"+automobile.getVin()))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("vin").value(automobile.getVin()));
+                .andExpect(jsonPath("vin").value(automobile.getVin()))
+                .andExpect(header().string("ETag", "\"0-0\""));
+    }
+
+    // returns 304 without a body when If-None-Match matches the current ETag
+    @Test
+    void getAuto_ifNoneMatch_returnsNotModified() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        automobile.setId(5);
+        automobile.setVersion(2);
+        when(autosService.getAuto("AA88CC")).thenReturn(automobile);
+        mockMvc.perform(get("/api/autos/AA88CC").header("If-None-Match", "\"5-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    // a VIN deleted and created again restarts at version 0; the old car's ETag must not match
+    @Test
+    void getAuto_ifNoneMatchOfDeletedCar_returnsOk() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        automobile.setId(9);
+        when(autosService.getAuto("AA88CC")).thenReturn(automobile);
+        mockMvc.perform(get("/api/autos/AA88CC").header("If-None-Match", "\"5-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"9-0\""));
+    }
+
+    // list responses carry an ETag and the configured Cache-Control
+    @Test
+    void getAutos_ifNoneMatch_returnsNotModified() throws Exception {
+        List<Automobile> automobiles = new ArrayList<>();
+        automobiles.add(new Automobile(1967, "Mustang", "Ford","AA88CC"));
+        when(autosService.getAutos(isNull(), anyInt())).thenReturn(new AutosList(automobiles));
+        String etag = mockMvc.perform(get("/api/autos"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/autos").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
     }
 
     // returns NoContent(204) Auto not found
@@ -150,7 +375,7 @@ public class AutoControllerTests {
         Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
         automobile.setColor("RED");
         automobile.setOwner("Ivy");
-        when(autosService.updateAuto(anyString(),anyString(),anyString())).thenReturn(automobile);
+        when(autosService.updateAuto(anyString(),anyString(),anyString(),isNull())).thenReturn(automobile);
         mockMvc.perform(patch("/api/autos/"+automobile.getVin())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
@@ -160,10 +385,79 @@ public class AutoControllerTests {
                 .andExpect(jsonPath("owner").value("Ivy"));
     }
 
+    // If-Match is passed through as the expected version
+    @Test
+    void updateAuto_ifMatch_returnsAutoWithNewEtag() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        automobile.setColor("RED");
+        automobile.setOwner("Ivy");
+        automobile.setId(1);
+        automobile.setVersion(4);
+        when(autosService.updateAuto("AA88CC", "RED", "Ivy", new VersionTag(1, 3))).thenReturn(automobile);
+        mockMvc.perform(patch("/api/autos/AA88CC")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""));
+    }
+
+    // write-behind enabled: an If-Match PATCH first applies the change queued for the VIN
+    @Test
+    void updateAuto_ifMatchWithWriteBehind_appliesQueuedChangeFirst() throws Exception {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(ownerTransfers.isEnabled()).thenReturn(true);
+        when(autosService.updateAuto("AA88CC", "RED", "Ivy", new VersionTag(1, 3))).thenReturn(automobile);
+        mockMvc.perform(patch("/api/autos/AA88CC")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
+                .andExpect(status().isOk());
+        InOrder order = inOrder(ownerTransfers, autosService);
+        order.verify(ownerTransfers).applyPending("AA88CC");
+        order.verify(autosService).updateAuto("AA88CC", "RED", "Ivy", new VersionTag(1, 3));
+        verify(ownerTransfers, never()).offer(anyString(), anyString(), anyString());
+    }
+
+    // returns 412 when If-Match no longer matches the stored version
+    @Test
+    void updateAuto_staleIfMatch_returnsPreconditionFailed() throws Exception {
+        when(autosService.updateAuto(anyString(), anyString(), anyString(), eq(new VersionTag(1, 3)))).thenThrow(AutoVersionConflictException.class);
+        mockMvc.perform(patch("/api/autos/AA88CC")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // write-behind enabled: unconditional PATCH is queued and answered with 202
+    @Test
+    void updateAuto_writeBehind_returnsAccepted() throws Exception {
+        when(ownerTransfers.isEnabled()).thenReturn(true);
+        mockMvc.perform(patch("/api/autos/AA88CC")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
+                .andExpect(status().isAccepted());
+        verify(ownerTransfers).offer("AA88CC", "RED", "Ivy");
+        verify(autosService, never()).updateAuto(anyString(), anyString(), anyString(), any());
+    }
+
+    // write-behind queue full returns 429
+    @Test
+    void updateAuto_writeBehindFull_returnsTooManyRequests() throws Exception {
+        when(ownerTransfers.isEnabled()).thenReturn(true);
+        doThrow(WriteBehindFullException.class).when(ownerTransfers).offer(anyString(), anyString(), anyString());
+        mockMvc.perform(patch("/api/autos/AA88CC")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
     // return NoContent(204) auto not found
     @Test
     void updateAuto_withObject_returnNoContent() throws Exception {
-        when(autosService.updateAuto(anyString(),anyString(),anyString())).thenThrow(AutoNotFoundException.class);
+        when(autosService.updateAuto(anyString(),anyString(),anyString(),isNull())).thenThrow(AutoNotFoundException.class);
         mockMvc.perform(patch("/api/autos/NOTFOUND")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
@@ -174,7 +468,7 @@ public class AutoControllerTests {
     // returns bad request (400)
     @Test
     void updateAuto_withObject_returnBadRequ() throws Exception {
-        when(autosService.updateAuto(anyString(),anyString(),anyString())).thenThrow(InvalidAutoException.class);
+        when(autosService.updateAuto(anyString(),anyString(),anyString(),isNull())).thenThrow(InvalidAutoException.class);
         mockMvc.perform(patch("/api/autos/NOTFOUND")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"color\":\"RED\",\"owner\":\"Ivy\"}"))
@@ -189,13 +483,29 @@ public class AutoControllerTests {
     void deleteAuto_withVin_returns202() throws Exception {
         mockMvc.perform(delete("/api/autos/AA88CC"))
                 .andExpect(status().isAccepted());
-        verify(autosService).deleteAuto(anyString());
+        verify(autosService).deleteAuto(anyString(), isNull());
+    }
+
+    // returns 412 when If-Match no longer matches the stored version
+    @Test
+    void deleteAuto_staleIfMatch_returnsPreconditionFailed() throws Exception {
+        doThrow(AutoVersionConflictException.class).when(autosService).deleteAuto("AA88CC", new VersionTag(1, 3));
+        mockMvc.perform(delete("/api/autos/AA88CC").header("If-Match", "\"1-3\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // an If-Match without the id (the old "<version>" form) can't be checked and is a 412
+    @Test
+    void deleteAuto_versionOnlyIfMatch_returnsPreconditionFailed() throws Exception {
+        mockMvc.perform(delete("/api/autos/AA88CC").header("If-Match", "\"3\""))
+                .andExpect(status().isPreconditionFailed());
+        verify(autosService, never()).deleteAuto(anyString(), any());
     }
 
     // returns NoContent(204) vehicle not found
     @Test
     void deleteAuto_withVin_returnsNoContent() throws Exception {
-        doThrow(AutoNotFoundException.class).when(autosService).deleteAuto(anyString());
+        doThrow(AutoNotFoundException.class).when(autosService).deleteAuto(anyString(), isNull());
         mockMvc.perform(delete("/api/autos/AA88CC"))
                 .andExpect(status().isNoContent());
     }
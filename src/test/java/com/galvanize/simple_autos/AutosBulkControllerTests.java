@@ -0,0 +1,67 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AutosBulkController.class)
+@Import(AutosBulkLoader.class)
+@TestPropertySource(properties = "autos.bulk.batch-size=2")
+public class AutosBulkControllerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    AutosService autosService;
+
+    //POST: /api/autos/bulk
+    // JSON array is saved in batches of the configured size
+    @Test
+    void addAutos_jsonArray_savesInBatches() throws Exception {
+        String json = "[{\"year\":1967,\"make\":\"Ford\",\"model\":\"Mustang\",\"vin\":\"AA1\"}," +
+                "{\"year\":1968,\"make\":\"Ford\",\"model\":\"Mustang\",\"vin\":\"AA2\"}," +
+                "{\"year\":1969,\"make\":\"Ford\",\"model\":\"Mustang\",\"vin\":\"AA3\"}]";
+        mockMvc.perform(post("/api/autos/bulk").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("inserted").value(3))
+                .andExpect(jsonPath("batches[0].size").value(2))
+                .andExpect(jsonPath("batches[1].size").value(1));
+        verify(autosService, times(2)).addAutos(anyList());
+    }
+
+    // NDJSON is accepted, a failing batch is retried row by row and doesn't stop the ones after it
+    @Test
+    void addAutos_ndjson_reportsFailedRows() throws Exception {
+        when(autosService.addAutos(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate vin"))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate vin"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        String ndjson = "{\"year\":1967,\"make\":\"Ford\",\"model\":\"Mustang\",\"vin\":\"AA1\"}\n" +
+                "{\"year\":1968,\"make\":\"Ford\",\"model\":\"Mustang\",\"vin\":\"AA1\"}\n" +
+                "{\"year\":1969,\"make\":\"Ford\",\"model\":\"Mustang\",\"vin\":\"AA3\"}\n";
+        mockMvc.perform(post("/api/autos/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("inserted").value(2))
+                .andExpect(jsonPath("failed").value(1))
+                .andExpect(jsonPath("batches[0].inserted").value(false))
+                .andExpect(jsonPath("batches[0].failedRows[0]").value(1))
+                .andExpect(jsonPath("batches[0].error").value(BatchResult.CONSTRAINT_VIOLATION))
+                .andExpect(jsonPath("batches[1].inserted").value(true))
+                .andExpect(jsonPath("batches[1].failedRows").doesNotExist());
+        verify(autosService, times(4)).addAutos(anyList());
+    }
+}
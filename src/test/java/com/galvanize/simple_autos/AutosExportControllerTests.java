@@ -0,0 +1,89 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AutosExportController.class)
+public class AutosExportControllerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    AutosService autosService;
+
+    // /api/autos/export?make=Ford streams the filtered rows as CSV
+    @Test
+    void export_filtered_returnsCsv() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Automobile> action = invocation.getArgument(1);
+            Automobile first = new Automobile(1967, "Mustang", "Ford", "AA88CC");
+            first.setId(1);
+            first.setOwner("Smith, Jane");
+            action.accept(first);
+            Automobile second = new Automobile(1968, "Mustang", "Ford", "AA88DD");
+            second.setId(2);
+            action.accept(second);
+            return null;
+        }).when(autosService).streamAutos(eq(new AutosFilter(null, "Ford", MatchMode.PREFIX)), any());
+        MvcResult result = mockMvc.perform(get("/api/autos/export?make=Ford"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"autos.csv\""))
+                .andExpect(content().string(AutosCsvWriter.HEADER + "\r\n"
+                        + "1,AA88CC,1967,Ford,Mustang,,\"Smith, Jane\",\r\n"
+                        + "2,AA88DD,1968,Ford,Mustang,,,\r\n"));
+    }
+
+    // a failure part-way through ends the file with an #aborted row carrying the row count
+    @Test
+    void export_failsMidStream_writesAbortedRow() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Automobile> action = invocation.getArgument(1);
+            Automobile first = new Automobile(1967, "Mustang", "Ford", "AA88CC");
+            first.setId(1);
+            action.accept(first);
+            throw new QueryTimeoutException("cursor timed out");
+        }).when(autosService).streamAutos(any(), any());
+        MvcResult result = mockMvc.perform(get("/api/autos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+        assertEquals(AutosCsvWriter.HEADER + "\r\n"
+                + "1,AA88CC,1967,Ford,Mustang,,,\r\n"
+                + AutosCsvWriter.ABORTED + ",1\r\n", result.getResponse().getContentAsString());
+    }
+
+    // /api/autos/export?format=xlsx is rejected
+    @Test
+    void export_unknownFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/autos/export?format=xlsx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void escape_quotesOnlyWhenNeeded() {
+        assertEquals("Ford", AutosCsvWriter.escape("Ford"));
+        assertEquals("\"a \"\"b\"\", c\"", AutosCsvWriter.escape("a \"b\", c"));
+        assertEquals("\"line\nbreak\"", AutosCsvWriter.escape("line\nbreak"));
+        assertEquals("", AutosCsvWriter.escape(null));
+    }
+}
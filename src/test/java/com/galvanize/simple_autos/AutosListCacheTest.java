@@ -0,0 +1,181 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutosListCacheTest {
+
+    AutosProperties properties = new AutosProperties();
+    MockEnvironment environment = new MockEnvironment();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AtomicInteger loads = new AtomicInteger();
+    AutosListCache cache;
+
+    AutosFilter fords = new AutosFilter(null, "Ford", MatchMode.PREFIX);
+    AutosFilter audis = new AutosFilter(null, "Audi", MatchMode.PREFIX);
+    AutosFilter reds = new AutosFilter("red", null, MatchMode.EXACT);
+
+    @BeforeEach
+    void setUp() {
+        cache = new AutosListCache(properties, new StaticListableBeanFactory().getBeanProvider(CacheManager.class), environment);
+        cache.bindTo(registry);
+    }
+
+    @Test
+    void get_sameFilter_loadsOnce() {
+        get(fords, auto(1, "Ford", "red"));
+        get(new AutosFilter(null, " ford ", MatchMode.PREFIX), auto(1, "Ford", "red"));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", AutosListCache.CACHE_NAME, "result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void onAutoChanged_otherMake_keepsEntry() {
+        get(fords, auto(1, "Ford", "red"));
+        get(audis, auto(2, "Audi", "blue"));
+
+        cache.onAutoChanged(updated(auto(3, "Ford", "green")));
+        get(fords, auto(1, "Ford", "red"));
+        get(audis, auto(2, "Audi", "blue"));
+
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(registry.get("autos.list.cache.invalidations").tag("scope", "targeted").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void onAutoChanged_carLeavesFilter_evictsPageContainingIt() {
+        get(reds, auto(1, "Ford", "red"));
+
+        // Repainted blue: the filter no longer matches, but the cached page still lists the car.
+        cache.onAutoChanged(updated(auto(1, "Ford", "blue")));
+        get(reds, auto(1, "Ford", "red"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void onAutoChanged_delete_clearsAll() {
+        get(fords, auto(1, "Ford", "red"));
+        get(audis, auto(2, "Audi", "blue"));
+
+        cache.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, "VIN9", null));
+        get(fords, auto(1, "Ford", "red"));
+        get(audis, auto(2, "Audi", "blue"));
+
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void get_sharedL2_servesOtherInstanceUntilMakeIsWritten() {
+        properties.getListCache().setL2CacheName("autosListsL2");
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("cacheManager", new ConcurrentMapCacheManager()));
+        AutosListCache first = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+        AutosListCache second = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+
+        first.get(fords, null, 100, () -> load(auto(1, "Ford", "red")));
+        second.get(fords, null, 100, () -> load(auto(1, "Ford", "red")));
+        first.get(audis, null, 100, () -> load(auto(2, "Audi", "blue")));
+        assertThat(loads.get()).isEqualTo(2);
+
+        first.onAutoChanged(updated(auto(3, "Ford", "green")));
+        AutosListCache third = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+        third.get(fords, null, 100, () -> load(auto(1, "Ford", "red")));
+        third.get(audis, null, 100, () -> load(auto(2, "Audi", "blue")));
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void get_l1HitAfterWriteOnOtherInstance_reloads() {
+        properties.getListCache().setL2CacheName("autosListsL2");
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("cacheManager", new ConcurrentMapCacheManager()));
+        AutosListCache first = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+        AutosListCache second = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+        second.get(fords, null, 100, () -> load(auto(1, "Ford", "red")));
+        second.get(audis, null, 100, () -> load(auto(2, "Audi", "blue")));
+
+        first.onAutoChanged(updated(auto(3, "Ford", "green")));
+        second.get(fords, null, 100, () -> load(auto(1, "Ford", "red")));
+        second.get(audis, null, 100, () -> load(auto(2, "Audi", "blue")));
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void get_invalidatedDuringLoad_doesNotStorePage() {
+        cache.get(fords, null, 100, () -> {
+            cache.onAutoChanged(updated(auto(3, "Ford", "green")));
+            return load(auto(1, "Ford", "red"));
+        });
+        get(fords, auto(1, "Ford", "red"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_withReplica_doesNotStorePagesLoadedRightAfterAWrite() {
+        environment.setProperty("autos.datasource.replica.jdbc-url", "jdbc:h2:mem:replica");
+        cache = new AutosListCache(properties, new StaticListableBeanFactory().getBeanProvider(CacheManager.class), environment);
+
+        get(fords, auto(1, "Ford", "red"));
+        get(fords, auto(1, "Ford", "red"));
+        assertThat(loads.get()).isEqualTo(1);
+
+        // The replica may not have the write yet, so the reloaded page is served but not kept.
+        cache.onAutoChanged(updated(auto(3, "Ford", "green")));
+        get(fords, auto(1, "Ford", "red"));
+        get(fords, auto(1, "Ford", "red"));
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void onAutosAdded_clearsOnceAndRestampsL2() {
+        properties.getListCache().setL2CacheName("autosListsL2");
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("cacheManager", new ConcurrentMapCacheManager()));
+        cache = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+        cache.bindTo(registry);
+        get(fords, auto(1, "Ford", "red"));
+        get(audis, auto(2, "Audi", "blue"));
+
+        cache.onAutosAdded(new AutosAddedEvent(List.of(auto(3, "Ford", "green"), auto(4, "Audi", "green"))));
+        AutosListCache other = new AutosListCache(properties, beans.getBeanProvider(CacheManager.class), environment);
+        other.get(fords, null, 100, () -> load(auto(1, "Ford", "red")));
+        other.get(audis, null, 100, () -> load(auto(2, "Audi", "blue")));
+
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(registry.get("autos.list.cache.invalidations").tag("scope", "all").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    private AutosList get(AutosFilter filter, Automobile auto) {
+        return cache.get(filter, null, 100, () -> load(auto));
+    }
+
+    private AutosList load(Automobile auto) {
+        loads.incrementAndGet();
+        return new AutosList(List.of(auto));
+    }
+
+    private static AutoChangedEvent updated(Automobile auto) {
+        return new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, auto.getVin(), auto);
+    }
+
+    private static Automobile auto(long id, String make, String color) {
+        Automobile auto = new Automobile(2020, "Model", make, "VIN" + id);
+        auto.setId(id);
+        auto.setColor(color);
+        return auto;
+    }
+}
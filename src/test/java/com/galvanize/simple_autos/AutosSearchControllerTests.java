@@ -0,0 +1,53 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AutosSearchController.class)
+public class AutosSearchControllerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    AutosSearchService searchService;
+
+    //GET: /api/autos/search?q=
+    // returns the ranked matches
+    @Test
+    void search_matches_returnsAutos() throws Exception {
+        when(searchService.search(eq("chevy red"), anyInt()))
+                .thenReturn(new AutosList(List.of(new Automobile(2019, "Silverado", "Chevrolet", "AA88CC"))));
+        mockMvc.perform(get("/api/autos/search").param("q", "chevy red"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("automobiles[0].vin").value("AA88CC"));
+    }
+
+    // no match returns 204
+    @Test
+    void search_noMatch_returnsNoContent() throws Exception {
+        when(searchService.search(eq("tesla"), anyInt())).thenReturn(new AutosList(List.of()));
+        mockMvc.perform(get("/api/autos/search?q=tesla"))
+                .andExpect(status().isNoContent());
+    }
+
+    // index still building returns 503 with Retry-After
+    @Test
+    void search_indexNotReady_returnsServiceUnavailable() throws Exception {
+        when(searchService.search(eq("ford"), anyInt())).thenThrow(new SearchIndexNotReadyException());
+        mockMvc.perform(get("/api/autos/search?q=ford"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+}
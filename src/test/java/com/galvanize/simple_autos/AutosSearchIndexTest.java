@@ -0,0 +1,94 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutosSearchIndexTest {
+
+    private AutosSearchIndex index;
+
+    private static Automobile auto(long id, String make, String model, String color, String owner, String vin) {
+        Automobile auto = new Automobile(2020, model, make, vin);
+        auto.setId(id);
+        auto.setColor(color);
+        auto.setOwner(owner);
+        return auto;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new AutosSearchIndex(Map.of("chevy", "chevrolet"));
+        index.put(auto(1, "Chevrolet", "Silverado", "RED", "Ivy Smith", "1GCHK29U"));
+        index.put(auto(2, "Chevrolet", "Silverado", "BLUE", "Sam Jones", "1GCHK29V"));
+        index.put(auto(3, "Ford", "Mustang", "RED", "Joe Smith", "1FAFP404"));
+        index.put(auto(4, "Chevrolet", "Camaro", "RED", "Ann Lee", "2G1FB1E3"));
+    }
+
+    @Test
+    void search_aliasAndAllTokens_ranksFullMatchFirst() {
+        assertThat(index.search("chevy silverado red", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("red chevy", 10)).hasSize(3).endsWith(3L);
+    }
+
+    @Test
+    void search_typo_matchesWithinOneEdit() {
+        assertThat(index.search("silvrado", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("mustnag", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void search_prefix_matches() {
+        assertThat(index.search("cama", 10)).containsExactly(4L);
+        assertThat(index.search("1gchk", 10)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void search_limit_keepsBest() {
+        assertThat(index.search("red smith", 1)).hasSize(1);
+    }
+
+    @Test
+    void put_existingVin_replacesDocument() {
+        index.put(auto(3, "Ford", "Mustang", "GREEN", "Joe Smith", "1FAFP404"));
+        assertThat(index.search("green", 10)).containsExactly(3L);
+        assertThat(index.search("mustang red", 10)).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void search_otherTokens_onlyRankResultsOfRarestToken() {
+        assertThat(index.search("mustang chevrolet", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void putIfNewer_sameOrOlderVersion_keepsDocument() {
+        Automobile stale = auto(3, "Ford", "Mustang", "GREEN", "Joe Smith", "1FAFP404");
+        index.putIfNewer(stale);
+        assertThat(index.search("green", 10)).isEmpty();
+        assertThat(index.deletedRatio()).isZero();
+
+        stale.setVersion(1);
+        index.putIfNewer(stale);
+        assertThat(index.search("green", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void remove_hidesDocument() {
+        index.remove("1FAFP404");
+        assertThat(index.search("mustang", 10)).isEmpty();
+        assertThat(index.deletedRatio()).isGreaterThan(0);
+    }
+
+    @Test
+    void withinOneEdit_coversEditKinds() {
+        assertThat(AutosSearchIndex.withinOneEdit("silverado", "silvrado")).isTrue();
+        assertThat(AutosSearchIndex.withinOneEdit("silverado", "silverrado")).isTrue();
+        assertThat(AutosSearchIndex.withinOneEdit("silverado", "silvarado")).isTrue();
+        assertThat(AutosSearchIndex.withinOneEdit("silverado", "silevrado")).isTrue();
+        assertThat(AutosSearchIndex.withinOneEdit("silverado", "slivreado")).isFalse();
+    }
+}
@@ -1,18 +1,29 @@
 package com.galvanize.simple_autos;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,25 +35,68 @@ class AutosServiceTest {
     @Mock
     AutosRepository autosRepository;
 
+    @Mock
+    ApplicationEventPublisher events;
+
+    ReadYourWritesWindow readYourWrites = new ReadYourWritesWindow(new AutosProperties());
+
     @BeforeEach
     void setUp() {
-        autosService = new AutosService(autosRepository);
+        autosService = new AutosService(autosRepository, readYourWrites, events, new SimpleMeterRegistry());
     }
 
     @Test
-    void getAutos_noArg_returnslist() {
-        AutosList autosList = autosService.getAutos();
+    void getAutos_firstPage_returnslist() {
+        AutosList autosList = autosService.getAutos(null, 100);
         assertThat(autosList).isNotNull();
     }
 
+    @Test
+    void getAutos_morePages_returnsNextCursor() {
+        Automobile first = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        first.setId(11);
+        Automobile second = new Automobile(1968, "Mustang", "Ford","AA88DD");
+        second.setId(12);
+        Automobile third = new Automobile(1969, "Mustang", "Ford","AA88EE");
+        third.setId(13);
+        when(autosRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(Arrays.asList(first, second, third));
+        AutosList autosList = autosService.getAutos(10L, 2);
+        assertThat(autosList.getAutomobiles().size()).isEqualTo(2);
+        assertThat(autosList.getNext()).isEqualTo(12L);
+    }
+
     @Test
     void getAutos_search_returnsList() {
         Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
         automobile.setColor("RED");
-        when(autosRepository.findByColorContainsAndMakeContains(anyString(), anyString()))
+        when(autosRepository.findAutos(eq(new AutosFilter("red", "ford", MatchMode.PREFIX)), eq(0L), anyInt()))
                 .thenReturn(Arrays.asList(automobile));
         AutosList autosList = autosService.getAutos("RED", "Ford");
         assertThat(autosList).isNotNull();
+        assertThat(autosList.isEmpty()).isFalse();
+    }
+
+    @Test
+    void getAutos_search_noMatches_returnsEmptyList() {
+        AutosList autosList = autosService.getAutos(new AutosFilter("PLAID", null, MatchMode.EXACT), null, 10);
+        assertThat(autosList).isNotNull();
+        assertThat(autosList.isEmpty()).isTrue();
+    }
+
+    @Test
+    void getAutoFields_largePage_allowsTenThousandRows() {
+        AutosFilter filter = new AutosFilter(null, null, null);
+        when(autosRepository.findFields(filter, List.of("vin"), 0, 10_001)).thenReturn(new ArrayList<>());
+
+        autosService.getAutoFields(filter, List.of("vin"), null, 50_000);
+        verify(autosRepository).findFields(filter, List.of("vin"), 0, 10_001);
+    }
+
+    @Test
+    void getAutoFields_unknownField_throwsInvalid() {
+        assertThatExceptionOfType(InvalidAutoException.class)
+                .isThrownBy(() -> autosService.getAutoFields(new AutosFilter(null, null, null), List.of("vin", "secret"), null, 10));
     }
 
     @Test
@@ -54,6 +108,36 @@ class AutosServiceTest {
         Automobile auto = autosService.addAuto(automobile);
         assertThat(auto).isNotNull();
         assertThat(auto.getMake()).isEqualTo("Ford");
+        // Reads of the new VIN go to the primary until the replica can have it.
+        assertThat(readYourWrites.isRecentlyWritten("AA88CC")).isTrue();
+    }
+
+    @Test
+    void addAuto_existingVin_returnsStoredAuto() {
+        Automobile stored = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        stored.setId(7);
+        when(autosRepository.save(any(Automobile.class))).thenThrow(new DataIntegrityViolationException("uk_automobiles_vin"));
+        when(autosRepository.findByVin("AA88CC")).thenReturn(Optional.of(stored));
+
+        Automobile auto = autosService.addAuto(new Automobile(1967, "Mustang", "Ford","AA88CC"));
+        assertThat(auto.getId()).isEqualTo(7);
+        verify(events, never()).publishEvent(any(AutoChangedEvent.class));
+    }
+
+    @Test
+    void addAuto_existingVinDifferentCar_throwsAlreadyExists() {
+        Automobile stored = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(autosRepository.save(any(Automobile.class))).thenThrow(new DataIntegrityViolationException("uk_automobiles_vin"));
+        when(autosRepository.findByVin("AA88CC")).thenReturn(Optional.of(stored));
+
+        assertThatExceptionOfType(AutoAlreadyExistsException.class)
+                .isThrownBy(() -> autosService.addAuto(new Automobile(2000, "Viper", "Dodge","AA88CC")));
+    }
+
+    @Test
+    void addAuto_noVin_throwsInvalid() {
+        assertThatExceptionOfType(InvalidAutoException.class)
+                .isThrownBy(() -> autosService.addAuto(new Automobile(1967, "Mustang", "Ford", null)));
     }
 
     @Test
@@ -70,33 +154,75 @@ class AutosServiceTest {
     @Test
     void updateAuto() {
         Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
-        automobile.setColor("RED");
+        automobile.setColor("PINK");
+        automobile.setOwner("Ivy");
+        when(autosRepository.updateColorAndOwner(eq("AA88CC"), eq("PINK"), eq("Ivy"), isNull(), isNull(), any(Instant.class)))
+                .thenReturn(1);
         when(autosRepository.findByVin(anyString()))
                 .thenReturn(Optional.of(automobile));
-        when(autosRepository.save(any(Automobile.class))).thenReturn(automobile);
-        Automobile auto = autosService.updateAuto(automobile.getVin(), "PINK", "Ivy");
+        Automobile auto = autosService.updateAuto(automobile.getVin(), "PINK", "Ivy", null);
         assertThat(auto).isNotNull();
         assertThat(auto.getVin()).isEqualTo(automobile.getVin());
     }
 
     @Test
-    void deleteAuto_byVin() {
+    void updateAuto_notExists() {
+        assertThatExceptionOfType(AutoNotFoundException.class)
+                .isThrownBy(() -> autosService.updateAuto("NOVINHERE", "PINK", "Ivy", null));
+    }
+
+    @Test
+    void updateAuto_staleVersion_throwsConflict() {
+        when(autosRepository.existsByVin("AA88CC")).thenReturn(true);
+        assertThatExceptionOfType(AutoVersionConflictException.class)
+                .isThrownBy(() -> autosService.updateAuto("AA88CC", "PINK", "Ivy", new VersionTag(1, 3)));
+    }
+
+    @Test
+    void isCurrent_rowOlderThanCommittedChange_isNotCached() {
+        Automobile old = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        old.setId(7);
+        Automobile updated = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        updated.setId(7);
+        updated.setVersion(1);
+        assertThat(autosService.isCurrent(old)).isTrue();
+
+        autosService.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, "AA88CC", updated));
+        assertThat(autosService.isCurrent(old)).isFalse();
+        assertThat(autosService.isCurrent(updated)).isTrue();
+
+        autosService.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, "AA88CC", null));
+        assertThat(autosService.isCurrent(updated)).isFalse();
+    }
+
+    @Test
+    void applyOwnerTransfers_skipsMissingVins() {
         Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
-        automobile.setColor("RED");
-        when(autosRepository.findByVin(anyString())).thenReturn(Optional.of(automobile));
+        when(autosRepository.updateColorAndOwner(eq("AA88CC"), eq("RED"), eq("Ivy"), isNull(), isNull(), any(Instant.class))).thenReturn(1);
+        when(autosRepository.findByVinIn(List.of("AA88CC"))).thenReturn(List.of(automobile));
+
+        int applied = autosService.applyOwnerTransfers(List.of(
+                new OwnerTransfer("AA88CC", "RED", "Ivy"), new OwnerTransfer("NOVINHERE", "RED", "Ivy")));
+        assertThat(applied).isEqualTo(1);
+        verify(events).publishEvent(any(AutoChangedEvent.class));
+    }
+
+    @Test
+    void deleteAuto_byVin() {
+        when(autosRepository.deleteByVin("AA88CC", null, null)).thenReturn(1);
 
-        autosService.deleteAuto(automobile.getVin());
-        verify(autosRepository).delete(any(Automobile.class));
+        autosService.deleteAuto("AA88CC", null);
+        verify(autosRepository).deleteByVin("AA88CC", null, null);
+        verify(events).publishEvent(any(AutoChangedEvent.class));
     }
 
 
     @Test
     void deleteAuto_byVin_notExists() {
-        when(autosRepository.findByVin(anyString())).thenReturn(Optional.empty());
         assertThatExceptionOfType(AutoNotFoundException.class)
                 .isThrownBy(() -> {
-                    autosService.deleteAuto("NOVINHERE");
+                    autosService.deleteAuto("NOVINHERE", null);
                 });
 
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutosStatsServiceTest {
+
+    private AutosStatsService statsService;
+
+    @Mock
+    AutosRepository autosRepository;
+
+    @BeforeEach
+    void setUp() {
+        AutosProperties properties = new AutosProperties();
+        properties.getStats().setMaterialized(true);
+        statsService = new AutosStatsService(autosRepository, properties);
+        when(autosRepository.countBy(eq("make"), any(AutosFilter.class))).thenReturn(Map.of("Ford", 2L));
+        when(autosRepository.countBy(eq("color"), any(AutosFilter.class))).thenReturn(Map.of("RED", 2L));
+        when(autosRepository.countBy(eq("year"), any(AutosFilter.class))).thenReturn(Map.of("1967", 2L));
+    }
+
+    @Test
+    void getStats_filtered_queriesDatabase() {
+        AutosStats stats = statsService.getStats(new AutosFilter(null, "Ford", MatchMode.EXACT));
+        assertThat(stats.getMake()).containsEntry("Ford", 2L);
+        verify(autosRepository).countBy("make", new AutosFilter(null, "Ford", MatchMode.EXACT));
+    }
+
+    @Test
+    void getStats_materialized_insertUpdatesSummaryWithoutQuery() {
+        statsService.getStats(new AutosFilter(null, null, null));
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford", "AA88CC");
+        automobile.setColor("BLUE");
+        statsService.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, "AA88CC", automobile));
+
+        AutosStats stats = statsService.getStats(new AutosFilter(null, null, null));
+        assertThat(stats.getMake()).containsEntry("Ford", 3L);
+        assertThat(stats.getColor()).containsEntry("BLUE", 1L);
+        verify(autosRepository, times(1)).countBy(eq("make"), any(AutosFilter.class));
+    }
+
+    @Test
+    void getStats_materialized_deleteRecomputesFacets() {
+        statsService.getStats(new AutosFilter(null, null, null));
+        statsService.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.DELETED, "AA88CC", null));
+
+        statsService.getStats(new AutosFilter(null, null, null));
+        verify(autosRepository, times(2)).countBy(eq("make"), any(AutosFilter.class));
+    }
+
+    // Writes through other instances never reach this one, so the timer forces a recompute.
+    @Test
+    void getStats_materialized_expireRecomputesAllFacets() {
+        statsService.getStats(new AutosFilter(null, null, null));
+        statsService.expire();
+
+        statsService.getStats(new AutosFilter(null, null, null));
+        verify(autosRepository, times(2)).countBy(eq("make"), any(AutosFilter.class));
+        verify(autosRepository, times(2)).countBy(eq("year"), any(AutosFilter.class));
+    }
+
+    @Test
+    void getStats_materialized_insertDuringRecomputeRecomputesAgain() {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford", "AA88CC");
+        when(autosRepository.countBy(eq("make"), any(AutosFilter.class))).thenAnswer(invocation -> {
+            statsService.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, "AA88CC", automobile));
+            return Map.of("Ford", 2L);
+        }).thenReturn(Map.of("Ford", 3L));
+
+        statsService.getStats(new AutosFilter(null, null, null));
+        AutosStats stats = statsService.getStats(new AutosFilter(null, null, null));
+        assertThat(stats.getMake()).containsEntry("Ford", 3L);
+        verify(autosRepository, times(2)).countBy(eq("make"), any(AutosFilter.class));
+    }
+}
@@ -0,0 +1,41 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database created by the pre-Flyway app (ddl-auto=update, IDENTITY ids) must migrate and pass validation.
+class LegacySchemaMigrationTest {
+
+    @Test
+    void legacySchema_migratesAndValidates() throws Exception {
+        String url = "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "sa");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table automobiles (id bigint generated by default as identity, " +
+                    "model_year integer not null, make varchar(255), model varchar(255), color varchar(255), " +
+                    "owner_name varchar(255), purchase_date timestamp(6), vin varchar(255), primary key (id))");
+            statement.execute("insert into automobiles (model_year, make, model, vin) values (1967, 'Ford', 'Mustang', 'AABBCC')");
+            statement.execute("insert into automobiles (model_year, make, model, vin) values (2000, 'Dodge', 'Viper', null)");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SimpleAutosApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--autos.search.enabled=false")) {
+            AutosService autosService = context.getBean(AutosService.class);
+
+            assertThat(autosService.getAuto("AABBCC").getMake()).isEqualTo("Ford");
+            assertThat(autosService.getAuto("LEGACY-2").getMake()).isEqualTo("Dodge");
+            Automobile added = autosService.addAuto(new Automobile(2020, "Quatro", "Audi", "QQZZAA"));
+            assertThat(added.getId()).isGreaterThan(2);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.galvanize.simple_autos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerTransferQueueTest {
+
+    @Mock
+    AutosService autosService;
+
+    @TempDir
+    Path tmp;
+
+    List<OwnerTransferQueue> queues = new ArrayList<>();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (OwnerTransferQueue queue : queues) {
+            queue.stop();
+        }
+    }
+
+    private OwnerTransferQueue queue(int capacity, Path journal) {
+        AutosProperties properties = new AutosProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setCapacity(capacity);
+        properties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+        if (journal != null) {
+            properties.getWriteBehind().setJournal(journal.toString());
+        }
+        OwnerTransferQueue queue = new OwnerTransferQueue(autosService, new ObjectMapper(), properties, meterRegistry);
+        queues.add(queue);
+        return queue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OwnerTransfer> flushed() {
+        ArgumentCaptor<List<OwnerTransfer>> batch = ArgumentCaptor.forClass(List.class);
+        verify(autosService).applyOwnerTransfers(batch.capture());
+        return batch.getValue();
+    }
+
+    @Test
+    void flush_sameVin_keepsLastChange() {
+        OwnerTransferQueue queue = queue(100, null);
+        queue.offer("AA88CC", "RED", "Ivy");
+        queue.offer("AA88DD", "BLUE", "Sam");
+        queue.offer("AA88CC", "GREEN", "Joe");
+        assertThat(queue.size()).isEqualTo(2);
+
+        queue.flush();
+
+        List<OwnerTransfer> batch = flushed();
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0).getVin()).isEqualTo("AA88CC");
+        assertThat(batch.get(0).getColor()).isEqualTo("GREEN");
+        assertThat(batch.get(0).getOwner()).isEqualTo("Joe");
+        assertThat(queue.size()).isZero();
+    }
+
+    // queued PATCH, then an If-Match PATCH: the queued change is applied first and the flush has nothing left
+    @Test
+    void applyPending_beforeSynchronousUpdate_appliesQueuedChangeFirst() {
+        OwnerTransferQueue queue = queue(100, null);
+        when(autosService.applyOwnerTransfers(anyList())).thenReturn(1);
+        queue.offer("AA88CC", "RED", "Ivy");
+        queue.offer("AA88DD", "BLUE", "Sam");
+
+        queue.applyPending("AA88CC");
+        autosService.updateAuto("AA88CC", "GREEN", "Joe", new VersionTag(1, 3));
+        queue.flush();
+
+        InOrder order = inOrder(autosService);
+        order.verify(autosService).applyOwnerTransfers(List.of(new OwnerTransfer("AA88CC", "RED", "Ivy")));
+        order.verify(autosService).updateAuto("AA88CC", "GREEN", "Joe", new VersionTag(1, 3));
+        order.verify(autosService).applyOwnerTransfers(List.of(new OwnerTransfer("AA88DD", "BLUE", "Sam")));
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void offer_full_rejectsNewVins() {
+        OwnerTransferQueue queue = queue(2, null);
+        queue.offer("AA88CC", "RED", "Ivy");
+        queue.offer("AA88DD", "BLUE", "Sam");
+        assertThatExceptionOfType(WriteBehindFullException.class)
+                .isThrownBy(() -> queue.offer("AA88EE", "RED", "Joe"));
+        // an already queued VIN still coalesces
+        queue.offer("AA88CC", "GREEN", "Joe");
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_failure_requeuesBatch() {
+        OwnerTransferQueue queue = queue(100, null);
+        when(autosService.applyOwnerTransfers(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        queue.offer("AA88CC", "RED", "Ivy");
+        queue.flush();
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_poisonRow_isDeadLetteredAfterMaxRetries() {
+        OwnerTransferQueue queue = queue(100, null);
+        when(autosService.applyOwnerTransfers(anyList())).thenAnswer(invocation -> {
+            List<OwnerTransfer> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(transfer -> transfer.getVin().equals("BAD"))) {
+                throw new DataIntegrityViolationException("owner too long");
+            }
+            return batch.size();
+        });
+        queue.offer("AA88CC", "RED", "Ivy");
+        queue.offer("BAD", "BLUE", "Sam");
+        for (int attempt = 0; attempt < 3; attempt++) {
+            queue.flush();
+            assertThat(queue.size()).isEqualTo(2);
+        }
+
+        queue.flush();
+
+        assertThat(queue.size()).isZero();
+        assertThat(meterRegistry.counter("autos.write_behind.applied").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("autos.write_behind.dead_lettered").count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_missingVin_isCounted() {
+        OwnerTransferQueue queue = queue(100, null);
+        when(autosService.applyOwnerTransfers(anyList())).thenReturn(1);
+        queue.offer("AA88CC", "RED", "Ivy");
+        queue.offer("GONE", "BLUE", "Sam");
+
+        queue.flush();
+
+        assertThat(meterRegistry.counter("autos.write_behind.missing").count()).isEqualTo(1);
+    }
+
+    @Test
+    void journal_replaysUnflushedChanges() throws IOException {
+        Path journal = tmp.resolve("owner-transfers.log");
+        OwnerTransferQueue crashed = queue(100, journal);
+        crashed.offer("AA88CC", "RED", "Ivy");
+        crashed.offer("AA88CC", "GREEN", "Joe");
+        crashed.offer("AA88DD", "BLUE", "Sam");
+        queues.remove(crashed);
+
+        OwnerTransferQueue restarted = queue(100, journal);
+        assertThat(restarted.size()).isEqualTo(2);
+        restarted.flush();
+
+        List<OwnerTransfer> batch = flushed();
+        assertThat(batch.get(0).getColor()).isEqualTo("GREEN");
+        assertThat(Files.readAllLines(journal)).isEmpty();
+    }
+}
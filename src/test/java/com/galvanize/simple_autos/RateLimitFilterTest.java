@@ -0,0 +1,128 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    AutosProperties properties = new AutosProperties();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties.getRateLimit().getExpensive().setBurst(2);
+        properties.getRateLimit().getExpensive().setPerSecond(0.1);
+        properties.getRateLimit().getApiKeys().add("partner");
+        filter = new RateLimitFilter(properties, registry);
+    }
+
+    @Test
+    void tokenBucket_emptiesAfterBurst_refillsOverTime() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(100_000_000L);
+        assertThat(bucket.tryAcquire(100_000_000L)).isZero();
+    }
+
+    @Test
+    void tier_exportExpensive_listPagesCheap() {
+        assertThat(RateLimitFilter.tier(request("/api/autos/export"))).isEqualTo(RateLimitFilter.Tier.EXPENSIVE);
+        assertThat(RateLimitFilter.tier(request("/api/autos"))).isEqualTo(RateLimitFilter.Tier.CHEAP);
+        MockHttpServletRequest filtered = request("/api/autos");
+        filtered.setParameter("make", "Ford");
+        assertThat(RateLimitFilter.tier(filtered)).isEqualTo(RateLimitFilter.Tier.CHEAP);
+        assertThat(RateLimitFilter.tier(request("/api/autos/AA88CC"))).isEqualTo(RateLimitFilter.Tier.CHEAP);
+    }
+
+    @Test
+    void tier_streamAndContains_expensive() {
+        MockHttpServletRequest stream = request("/api/autos");
+        stream.setParameter("stream", "true");
+        assertThat(RateLimitFilter.tier(stream)).isEqualTo(RateLimitFilter.Tier.EXPENSIVE);
+        MockHttpServletRequest contains = request("/api/autos");
+        contains.setParameter("make", "or");
+        contains.setParameter("match", "CONTAINS");
+        assertThat(RateLimitFilter.tier(contains)).isEqualTo(RateLimitFilter.Tier.EXPENSIVE);
+    }
+
+    @Test
+    void doFilter_overExpensiveBudget_returns429PerClient() throws Exception {
+        assertThat(perform(request("/api/autos/export")).getStatus()).isEqualTo(200);
+        assertThat(perform(request("/api/autos/export")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = perform(request("/api/autos/export"));
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("10");
+
+        // VIN lookups draw on their own budget, and configured API keys on their own buckets.
+        assertThat(perform(request("/api/autos/AA88CC")).getStatus()).isEqualTo(200);
+        MockHttpServletRequest otherClient = request("/api/autos/export");
+        otherClient.addHeader("X-API-Key", "partner");
+        assertThat(perform(otherClient).getStatus()).isEqualTo(200);
+        assertThat(registry.get("autos.requests.rejected").tag("reason", "rate-limit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_unknownApiKey_sharesRemoteAddressBucket() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = request("/api/autos/export");
+            request.addHeader("X-API-Key", "made-up-" + i);
+            assertThat(perform(request).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletRequest request = request("/api/autos/export");
+        request.addHeader("X-API-Key", "made-up-2");
+        assertThat(perform(request).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void doFilter_asyncRequest_holdsSlotUntilComplete() throws Exception {
+        properties.getRateLimit().getConcurrency().setEnabled(true);
+        filter = new RateLimitFilter(properties, registry);
+        MockHttpServletRequest request = request("/api/autos");
+        request.setParameter("stream", "true");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertThat(filter.getLimiter().getInFlight()).isEqualTo(1);
+
+        request.getAsyncContext().complete();
+        assertThat(filter.getLimiter().getInFlight()).isZero();
+    }
+
+    @Test
+    void concurrencyLimiter_latencyClimbs_backsOffAndSheds() {
+        AutosProperties.RateLimit.Concurrency config = properties.getRateLimit().getConcurrency();
+        config.setInitialLimit(2);
+        config.setMinLimit(1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(config);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(1, 1_000_000);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(1, 50_000_000);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
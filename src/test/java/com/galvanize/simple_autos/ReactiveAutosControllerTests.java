@@ -0,0 +1,103 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveAutosController.class)
+@ActiveProfiles("reactive")
+public class ReactiveAutosControllerTests {
+
+    @Autowired
+    WebTestClient webClient;
+
+    @MockBean
+    ReactiveAutosRepository autosRepository;
+
+    @MockBean
+    IdempotencyKeys idempotencyKeys;
+
+    // GET /api/autos streams the page in the AutosList shape, with the cursor from the lookahead row
+    @Test
+    void getAutos_morePages_returnsPageWithNext() {
+        when(autosRepository.findAutos(eq(new AutosFilter(null, null, null)), eq(0L), eq(3)))
+                .thenReturn(Flux.just(auto(1, "AA88C1"), auto(2, "AA88C2"), auto(3, "AA88C3")));
+        webClient.get().uri("/api/autos?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.automobiles.length()").isEqualTo(2)
+                .jsonPath("$.automobiles[1].vin").isEqualTo("AA88C2")
+                .jsonPath("$.next").isEqualTo(2);
+    }
+
+    @Test
+    void getAutos_lastPage_returnsNoNext() {
+        when(autosRepository.findAutos(eq(new AutosFilter(null, "Ford", MatchMode.PREFIX)), eq(0L), anyInt()))
+                .thenReturn(Flux.just(auto(1, "AA88C1")));
+        webClient.get().uri("/api/autos?make=Ford").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.automobiles.length()").isEqualTo(1)
+                .jsonPath("$.next").doesNotExist();
+    }
+
+    @Test
+    void getAutos_none_returnsNoContent() {
+        when(autosRepository.findAutos(any(AutosFilter.class), anyLong(), anyInt())).thenReturn(Flux.empty());
+        webClient.get().uri("/api/autos?color=PLAID").exchange()
+                .expectStatus().isNoContent()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getAutos_fields_returnsBadRequest() {
+        webClient.get().uri("/api/autos?fields=vin,make").exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(autosRepository);
+    }
+
+    @Test
+    void getAuto_withVin_returnsAutoWithEtag() {
+        when(autosRepository.findByVin("AA88C1")).thenReturn(Mono.just(auto(1, "AA88C1")));
+        webClient.get().uri("/api/autos/AA88C1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"1-0\"")
+                .expectBody().jsonPath("$.vin").isEqualTo("AA88C1");
+    }
+
+    @Test
+    void addAuto_blankVin_returnsBadRequest() {
+        webClient.post().uri("/api/autos").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"make\":\"Ford\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void updateAuto_versionMismatch_returnsPreconditionFailed() {
+        when(autosRepository.updateColorAndOwner(eq("AA88C1"), any(), any(), eq(new VersionTag(1, 3)), any())).thenReturn(Mono.just(0L));
+        when(autosRepository.existsByVin("AA88C1")).thenReturn(Mono.just(true));
+        webClient.patch().uri("/api/autos/AA88C1").contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "\"1-3\"")
+                .bodyValue("{\"color\":\"RED\",\"owner\":\"Bob\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    private static Automobile auto(long id, String vin) {
+        Automobile auto = new Automobile(1967, "Mustang", "Ford", vin);
+        auto.setId(id);
+        return auto;
+    }
+}
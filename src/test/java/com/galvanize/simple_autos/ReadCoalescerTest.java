@@ -0,0 +1,105 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadCoalescerTest {
+
+    private ReadCoalescer reads;
+
+    private SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Mock
+    AutosService autosService;
+
+    @BeforeEach
+    void setUp() {
+        AutosProperties properties = new AutosProperties();
+        reads = new ReadCoalescer(autosService,
+                new AutosListCache(properties, new StaticListableBeanFactory().getBeanProvider(CacheManager.class), new MockEnvironment()), properties);
+        reads.bindTo(registry);
+    }
+
+    @Test
+    void getAuto_withinTtl_callsServiceOnce() {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(autosService.getAuto("AA88CC")).thenReturn(automobile);
+
+        assertThat(reads.getAuto("AA88CC")).isSameAs(automobile);
+        assertThat(reads.getAuto("AA88CC")).isSameAs(automobile);
+
+        verify(autosService, times(1)).getAuto("AA88CC");
+        assertThat(registry.get("autos.reads").tags("read", "auto", "outcome", "cached").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getAuto_afterChange_reloads() {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        when(autosService.getAuto("AA88CC")).thenReturn(automobile);
+        reads.getAuto("AA88CC");
+
+        reads.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, "AA88CC", automobile));
+        reads.getAuto("AA88CC");
+
+        verify(autosService, times(2)).getAuto("AA88CC");
+    }
+
+    // a read that started before a write committed must not cache the row it read
+    @Test
+    void getAuto_changedDuringLoad_isNotCached() {
+        Automobile old = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        Automobile updated = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        updated.setColor("RED");
+        when(autosService.getAuto("AA88CC")).thenAnswer(invocation -> {
+            reads.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.UPDATED, "AA88CC", updated));
+            return old;
+        }).thenReturn(updated);
+
+        assertThat(reads.getAuto("AA88CC")).isSameAs(old);
+        assertThat(reads.getAuto("AA88CC")).isSameAs(updated);
+        verify(autosService, times(2)).getAuto("AA88CC");
+    }
+
+    @Test
+    void getAutos_sameFilter_sharesResult() {
+        AutosList autosList = new AutosList(List.of(new Automobile(1967, "Mustang", "Ford","AA88CC")));
+        AutosFilter filter = new AutosFilter(null, "Ford", MatchMode.EXACT);
+        when(autosService.getAutos(filter, null, 100)).thenReturn(autosList);
+
+        reads.getAutos(filter, null, 100);
+        reads.getAutos(new AutosFilter(null, "ford", MatchMode.EXACT), null, 100);
+
+        verify(autosService, times(1)).getAutos(filter, null, 100);
+    }
+
+    @Test
+    void getAutos_afterBulkInsert_reloadsOnce() {
+        Automobile automobile = new Automobile(1967, "Mustang", "Ford","AA88CC");
+        automobile.setId(1);
+        AutosFilter filter = new AutosFilter(null, "Ford", MatchMode.EXACT);
+        when(autosService.getAutos(filter, null, 100)).thenReturn(new AutosList(List.of(automobile)));
+        reads.getAutos(filter, null, 100);
+
+        reads.onAutosAdded(new AutosAddedEvent(List.of(automobile)));
+        reads.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, "AA88CC", automobile, true));
+        reads.getAutos(filter, null, 100);
+        reads.onAutoChanged(new AutoChangedEvent(AutoChangedEvent.Type.CREATED, "AA88CC", automobile, true));
+        reads.getAutos(filter, null, 100);
+
+        verify(autosService, times(2)).getAutos(filter, null, 100);
+    }
+}
@@ -0,0 +1,40 @@
+package com.galvanize.simple_autos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsFilterTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RequestMetricsFilter filter = new RequestMetricsFilter(registry);
+
+    @Test
+    void doFilter_bodyWrittenThroughWriter_countsBytes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/autos/AA88CC");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/autos/{vin}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.getWriter().write("{\"owner\":\"Zoë\"}");
+            }
+        }));
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"owner\":\"Zoë\"}");
+        assertThat(registry.get("autos.response.size").tag("uri", "/api/autos/{vin}").summary().totalAmount())
+                .isEqualTo(16);
+    }
+}
@@ -6,9 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.*;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -24,6 +26,12 @@ class SimpleAutosApplicationTests {
 	@Autowired
 	AutosRepository autosRepository;
 
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	AutosListCache listCache;
+
     Random r = new Random();
     List<Automobile> testAutos;
     @BeforeEach
@@ -48,6 +56,8 @@ class SimpleAutosApplicationTests {
     @AfterEach
     void tearDown() {
         autosRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.AUTOS_BY_VIN).clear();
+        listCache.invalidateAll();
     }
 
     	@Test
@@ -81,6 +91,21 @@ class SimpleAutosApplicationTests {
         }
     }
 
+    @Test
+    void getAutos_purchaseRange_returnsOnlyThatRange() {
+        Automobile bought2019 = new Automobile(2018, "Civic", "Honda", "PDATE2019");
+        bought2019.setPurchaseDate(LocalDate.of(2019, 12, 31));
+        Automobile bought2020 = new Automobile(2019, "Accord", "Honda", "PDATE2020");
+        bought2020.setPurchaseDate(LocalDate.of(2020, 1, 1));
+        autosRepository.saveAll(List.of(bought2019, bought2020));
+
+        ResponseEntity<AutosList> response = restTemplate.getForEntity(
+                "/api/autos?purchasedFrom=2020-01-01&purchasedTo=2020-12-31", AutosList.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getAutomobiles()).extracting(Automobile::getVin).containsExactly("PDATE2020");
+        assertThat(response.getBody().getAutomobiles().get(0).getPurchaseDate()).isEqualTo(LocalDate.of(2020, 1, 1));
+    }
+
     @Test
     void addAuto_returnsNewAutoDetails() {
         Automobile automobile = new Automobile(1995, "Ford", "Windstar", "ABC123XX");
@@ -93,4 +118,26 @@ class SimpleAutosApplicationTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody().getVin()).isEqualTo(automobile.getVin());
     }
+
+    @Test
+    void getAuto_cachesByVin_untilDeleted() {
+        String vin = testAutos.get(0).getVin();
+        ResponseEntity<Automobile> response = restTemplate.getForEntity("/api/autos/" + vin, Automobile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cacheManager.getCache(CacheConfig.AUTOS_BY_VIN).get(vin)).isNotNull();
+
+        restTemplate.delete("/api/autos/" + vin);
+        assertThat(cacheManager.getCache(CacheConfig.AUTOS_BY_VIN).get(vin)).isNull();
+    }
+
+    @Test
+    void prometheus_exposesPerEndpointMetrics() {
+        restTemplate.getForEntity("/api/autos", AutosList.class);
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("autos_db_queries_count{method=\"GET\",uri=\"/api/autos\"")
+                .contains("autos_list_rows")
+                .contains("http_server_requests_seconds_bucket");
+    }
 }
@@ -0,0 +1,74 @@
+package com.galvanize.simple_autos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SingleFlightTest {
+
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void run_concurrentSameKey_callsOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.run("AA88CC", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "saved";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            Future<String> follower = executor.submit(() -> singleFlight.run("AA88CC", () -> {
+                calls.incrementAndGet();
+                return "second";
+            }));
+            while (singleFlight.collapsed() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("saved");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("saved");
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(singleFlight.inFlight()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void run_afterCompletion_callsAgain() {
+        assertThat(singleFlight.run("AA88CC", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.run("AA88CC", () -> "second")).isEqualTo("second");
+        assertThat(singleFlight.collapsed()).isZero();
+    }
+
+    @Test
+    void run_failure_isRethrown() {
+        assertThatExceptionOfType(AutoNotFoundException.class)
+                .isThrownBy(() -> singleFlight.run("AA88CC", () -> {
+                    throw new AutoNotFoundException();
+                }));
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
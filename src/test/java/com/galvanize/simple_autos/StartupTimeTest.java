@@ -0,0 +1,50 @@
+package com.galvanize.simple_autos;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run by ./gradlew startupCheck, not by the regular test task.
+@Tag("startup")
+class StartupTimeTest {
+
+    @Test
+    void fastProfile_answersFirstRequestWithinBudget() throws Exception {
+        long budget = Long.getLong("startup.budgetMillis", 10_000);
+        String url = "jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1";
+        // The fast profile skips migrations, so the schema is created before the clock starts.
+        Flyway.configure().dataSource(url, "sa", "sa").locations("classpath:db/migration/h2").load().migrate();
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SimpleAutosApplication.class)
+                .profiles("fast")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=sa",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")) {
+            long started = System.nanoTime();
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/autos")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            long firstRequest = System.nanoTime();
+
+            long startupMillis = (started - start) / 1_000_000;
+            long firstRequestMillis = (firstRequest - start) / 1_000_000;
+            assertThat(response.statusCode()).isEqualTo(204);
+            assertThat(firstRequestMillis)
+                    .as("startup: context %d ms, first request %d ms", startupMillis, firstRequestMillis)
+                    .isLessThanOrEqualTo(budget);
+        }
+    }
+}